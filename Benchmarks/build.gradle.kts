@@ -0,0 +1,53 @@
+import org.jetbrains.kotlin.gradle.dsl.JvmTarget
+
+/**
+ * Plain-JVM JMH benchmarks for the parts of TeamCode that don't touch the SDK. The sources are
+ * compiled straight out of TeamCode/src/main/java, so only hardware-free files can be listed
+ * below. Run with `./gradlew :Benchmarks:jmh`; pass -PjmhIncludes=<regex> to run a subset.
+ */
+plugins {
+    alias(libs.plugins.kotlin.jvm)
+    alias(libs.plugins.jmh)
+}
+
+val teamCode = rootProject.file("TeamCode/src/main/java")
+
+kotlin {
+    compilerOptions {
+        jvmTarget.set(JvmTarget.JVM_11)
+    }
+    sourceSets.named("main") {
+        kotlin.srcDir(teamCode)
+        kotlin.include(
+            "org/firstinspires/ftc/teamcode/control/**",
+            "org/firstinspires/ftc/teamcode/util/**",
+            "org/firstinspires/ftc/teamcode/localization/PoseFusion.kt",
+            "org/firstinspires/ftc/teamcode/localization/PoseRingBuffer.kt",
+            "org/firstinspires/ftc/teamcode/vision/TripleBuffer.kt",
+            "org/firstinspires/ftc/teamcode/vision/VisionSnapshot.kt",
+            "org/firstinspires/ftc/teamcode/shooting/ShotTable.kt",
+            "org/firstinspires/ftc/teamcode/shooting/ShootOnMoveSolver.kt"
+        )
+    }
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+dependencies {
+    implementation(libs.pedro.pathing.core)
+    jmh(libs.jmh.core)
+    jmh(libs.jmh.generator)
+}
+
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    profilers.add("gc")
+    fork.set(1)
+    warmupIterations.set(3)
+    iterations.set(5)
+    resultFormat.set("JSON")
+    (findProperty("jmhIncludes") as String?)?.let { includes.add(it) }
+}
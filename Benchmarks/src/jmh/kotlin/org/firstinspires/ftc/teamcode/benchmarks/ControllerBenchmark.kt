@@ -0,0 +1,51 @@
+package org.firstinspires.ftc.teamcode.benchmarks
+
+import org.firstinspires.ftc.teamcode.control.FlywheelController
+import org.firstinspires.ftc.teamcode.control.MotorFeedforward
+import org.firstinspires.ftc.teamcode.control.PIDController
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/** One control update per invocation, with a measurement that keeps the loops out of steady state. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ControllerBenchmark {
+    private val pid = PIDController(0.004, 0.001, 0.0001, 100.0)
+    private val feedforward = MotorFeedforward(0.12, 0.0052, 0.0006)
+    private val flywheel = FlywheelController(
+        MotorFeedforward(0.12, 0.0052, 0.0006),
+        PIDController(0.004),
+        6000.0, 40.0, 120.0
+    )
+    private var cycle = 0
+    private var time = 0L
+
+    @Setup
+    fun setup() {
+        flywheel.target = 1800.0
+    }
+
+    @Benchmark
+    fun pid(): Double = pid.calculate(measurement(), 0.005)
+
+    @Benchmark
+    fun feedforward(): Double = feedforward.calculate(measurement(), 120.0)
+
+    @Benchmark
+    fun flywheel(): Double {
+        time += 5_000_000L
+        return flywheel.update(1800 + measurement(), 12.4, 0.005, time)
+    }
+
+    private fun measurement(): Double {
+        cycle++
+        return ((cycle and 63) - 32).toDouble()
+    }
+}
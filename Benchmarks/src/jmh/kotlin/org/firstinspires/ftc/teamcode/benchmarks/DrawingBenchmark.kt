@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.benchmarks
+
+import com.pedropathing.geometry.BezierCurve
+import com.pedropathing.geometry.Pose
+import com.pedropathing.paths.Path
+import org.firstinspires.ftc.teamcode.util.Polyline
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/**
+ * The geometry behind Tuning.Drawing, without the Panels field. The *Baseline methods are what
+ * Drawing did before the history budget, path cache and allocation-free robot outline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+open class DrawingBenchmark {
+    @Param("300", "2000")
+    var historySize = 0
+
+    @Param("100")
+    var historyBudget = 0
+
+    private lateinit var xs: DoubleArray
+    private lateinit var ys: DoubleArray
+    private lateinit var outX: DoubleArray
+    private lateinit var outY: DoubleArray
+    private lateinit var path: Path
+    private lateinit var cachedPoints: Array<DoubleArray>
+    private val pose = Pose(72.0, 72.0, Math.toRadians(35.0))
+
+    @Setup
+    fun setup() {
+        xs = DoubleArray(historySize) { 72 + 30 * Math.cos(it * 0.01) }
+        ys = DoubleArray(historySize) { 72 + 30 * Math.sin(it * 0.02) }
+        outX = DoubleArray(historyBudget)
+        outY = DoubleArray(historyBudget)
+        path = Path(BezierCurve(Pose(8.0, 60.0), Pose(60.0, 120.0), Pose(120.0, 80.0)))
+        cachedPoints = path.getPanelsDrawingPoints()
+    }
+
+    @Benchmark
+    fun poseHistoryBaseline(bh: Blackhole) {
+        val x = xs.copyOf()
+        val y = ys.copyOf()
+        for (i in 0 until x.size - 1) {
+            bh.consume(x[i] + y[i + 1])
+        }
+    }
+
+    @Benchmark
+    fun poseHistoryDecimated(bh: Blackhole) {
+        val count = Polyline.decimate(xs, ys, 0, xs.size, historyBudget, outX, outY)
+        for (i in 0 until count - 1) {
+            bh.consume(outX[i] + outY[i + 1])
+        }
+    }
+
+    @Benchmark
+    fun pathPointsBaseline(bh: Blackhole) {
+        bh.consume(path.getPanelsDrawingPoints())
+    }
+
+    @Benchmark
+    fun pathPointsCached(bh: Blackhole) {
+        bh.consume(cachedPoints[0][0] + cachedPoints[1][0])
+    }
+
+    @Benchmark
+    fun robotOutlineBaseline(bh: Blackhole) {
+        val v = pose.headingAsUnitVector
+        v.magnitude = v.magnitude * ROBOT_RADIUS
+        bh.consume(pose.x + v.xComponent / 2)
+        bh.consume(pose.y + v.yComponent / 2)
+        bh.consume(pose.x + v.xComponent)
+        bh.consume(pose.y + v.yComponent)
+    }
+
+    @Benchmark
+    fun robotOutline(bh: Blackhole) {
+        val cos = Math.cos(pose.heading) * ROBOT_RADIUS
+        val sin = Math.sin(pose.heading) * ROBOT_RADIUS
+        bh.consume(pose.x + cos / 2)
+        bh.consume(pose.y + sin / 2)
+        bh.consume(pose.x + cos)
+        bh.consume(pose.y + sin)
+    }
+
+    companion object {
+        private const val ROBOT_RADIUS = 9.0
+    }
+}
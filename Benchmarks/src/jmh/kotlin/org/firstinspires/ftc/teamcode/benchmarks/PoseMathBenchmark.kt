@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.benchmarks
+
+import com.pedropathing.geometry.Pose
+import com.pedropathing.math.Vector
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.infra.Blackhole
+import java.util.concurrent.TimeUnit
+
+/** Per-loop pose work: Pedro's Pose/Vector arithmetic and the vision fusion history. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class PoseMathBenchmark {
+    private val pose = Pose(40.0, 90.0, 1.2)
+    private val offset = Pose(1.5, -0.5, 0.02)
+    private val velocity = Vector(30.0, 0.7)
+    private val fusion = PoseFusion(128)
+    private var time = 0L
+
+    @Setup
+    fun setup() {
+        for (i in 0 until 128) record()
+    }
+
+    @Benchmark
+    fun poseAdd(): Pose = pose.plus(offset)
+
+    @Benchmark
+    fun poseRotate(): Pose = pose.rotate(0.3, true)
+
+    @Benchmark
+    fun vectorRotate(bh: Blackhole) {
+        val rotated = velocity.copy()
+        rotated.rotateVector(-pose.heading)
+        bh.consume(rotated.xComponent)
+        bh.consume(rotated.yComponent)
+    }
+
+    @Benchmark
+    fun fusionRecord(): Double {
+        record()
+        return fusion.x
+    }
+
+    @Benchmark
+    fun fusionRecordAndCorrect(): Boolean {
+        record()
+        return fusion.correct(time - 40_000_000L, 40.5, 89.5, 1.21)
+    }
+
+    private fun record() {
+        time += 5_000_000L
+        fusion.record(time, 40.0, 90.0, 1.2)
+    }
+}
@@ -0,0 +1,40 @@
+package org.firstinspires.ftc.teamcode.benchmarks
+
+import org.firstinspires.ftc.teamcode.shooting.ShootOnMoveSolver
+import org.firstinspires.ftc.teamcode.shooting.ShotTable
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/** One shoot-while-moving solve and one shot table lookup, as done every loop. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class ShootOnMoveBenchmark {
+    private val distances = doubleArrayOf(36.0, 60.0, 84.0, 108.0, 132.0)
+    private val table = ShotTable.of(distances, doubleArrayOf(1450.0, 1620.0, 1800.0, 1960.0, 2120.0))
+    private val solver = ShootOnMoveSolver(table, ShotTable.of(distances, doubleArrayOf(0.42, 0.55, 0.68, 0.80, 0.93))).apply {
+        setGoal(12.0, 132.0)
+        launcherForward = -4.0
+        launcherHeadingOffset = Math.PI
+        releaseLatencySeconds = 0.08
+    }
+    private var t = 0.0
+
+    @Benchmark
+    fun lookup(): Double {
+        t += 0.37
+        return table.velocityAt(40 + t % 90)
+    }
+
+    @Benchmark
+    fun solve(): Double {
+        t += 0.01
+        solver.solve(72 + 20 * Math.cos(t), 60 + 20 * Math.sin(t), t, -40 * Math.sin(t), 40 * Math.cos(t), 0.5)
+        return solver.heading + solver.velocity
+    }
+}
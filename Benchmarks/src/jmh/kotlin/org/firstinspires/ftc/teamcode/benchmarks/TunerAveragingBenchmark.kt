@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.benchmarks
+
+import org.firstinspires.ftc.teamcode.util.DoubleRingBuffer
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import java.util.concurrent.TimeUnit
+
+/**
+ * One tuner loop: push a velocity sample into the window and read the average back. The baseline
+ * is the boxed ArrayList the velocity tuners used to keep.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+open class TunerAveragingBenchmark {
+    @Param("10", "100")
+    var window = 0
+
+    private val list = ArrayList<Double>()
+    private lateinit var ring: DoubleRingBuffer
+    private var sample = 0.0
+
+    @Setup
+    fun setup() {
+        list.clear()
+        ring = DoubleRingBuffer(window)
+        for (i in 0 until window) {
+            list.add(0.0)
+            ring.add(0.0)
+        }
+    }
+
+    @Benchmark
+    fun arrayListBaseline(): Double {
+        sample += 0.37
+        list.add(sample)
+        list.removeAt(0)
+        var average = 0.0
+        for (velocity in list) average += velocity
+        return average / list.size
+    }
+
+    @Benchmark
+    fun ringBufferMean(): Double {
+        sample += 0.37
+        ring.add(sample)
+        return ring.mean()
+    }
+
+    @Benchmark
+    fun ringBufferMeanAndDeviation(): Double {
+        sample += 0.37
+        ring.add(sample)
+        return ring.mean() + ring.standardDeviation()
+    }
+}
@@ -0,0 +1,42 @@
+import org.jetbrains.kotlin.gradle.dsl.JvmTarget
+
+/**
+ * Offline log replay and parameter sweeps on a desktop JVM. Like Benchmarks, it compiles the
+ * hardware-free TeamCode sources in place. Run with
+ * `./gradlew :Replay:run --args="path/to/log.bin"`; see ReplayMain for the options.
+ */
+plugins {
+    alias(libs.plugins.kotlin.jvm)
+    application
+}
+
+val teamCode = rootProject.file("TeamCode/src/main/java")
+
+kotlin {
+    compilerOptions {
+        jvmTarget.set(JvmTarget.JVM_11)
+    }
+    sourceSets.named("main") {
+        kotlin.srcDir(teamCode)
+        kotlin.include(
+            "org/firstinspires/ftc/teamcode/control/**",
+            "org/firstinspires/ftc/teamcode/util/**",
+            "org/firstinspires/ftc/teamcode/localization/PoseFusion.kt",
+            "org/firstinspires/ftc/teamcode/localization/PoseRingBuffer.kt",
+            "org/firstinspires/ftc/teamcode/logging/MatchRecord.kt",
+            "org/firstinspires/ftc/teamcode/logging/MatchLogger.kt",
+            "org/firstinspires/ftc/teamcode/logging/MatchLogReader.kt",
+            "org/firstinspires/ftc/teamcode/replay/**"
+        )
+    }
+}
+
+java {
+    sourceCompatibility = JavaVersion.VERSION_11
+    targetCompatibility = JavaVersion.VERSION_11
+}
+
+application {
+    mainClass.set("org.firstinspires.ftc.teamcode.replay.ReplayMain")
+    applicationDefaultJvmArgs = listOf("-Xmx2g")
+}
@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.command
+
+interface Command {
+    /** Subsystems this command needs exclusive use of while it is scheduled. */
+    val requirements: Set<Subsystem>
+
+    /** Whether a newly scheduled command sharing a requirement may cancel this one. */
+    val interruptible: Boolean
+        get() = true
+
+    fun initialize() {}
+
+    fun execute() {}
+
+    fun isFinished(): Boolean = false
+
+    fun end(interrupted: Boolean) {}
+}
@@ -0,0 +1,212 @@
+package org.firstinspires.ftc.teamcode.command
+
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.profiling.LoopProfiler
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Runs one control cycle per [run]: bulk read, subsystem periodics, commands, periodic tasks and
+ * then the output flush. Work registered with a divisor above 1 only runs on every Nth cycle and
+ * is phase-staggered against other work with the same divisor so slow jobs never stack up in one
+ * cycle. With a non-zero [targetPeriodMs] the cycle is padded out to that period so control runs
+ * at a fixed rate.
+ *
+ * With a [profiler] attached, the bulk read, every subsystem, the commands, every periodic task
+ * and the flush are timed as separate scopes.
+ */
+class Scheduler(private val hardware: HardwareCache, var targetPeriodMs: Double = 0.0) {
+    private class Periodic(val divisor: Int, val phase: Int, val action: Runnable, val name: String) {
+        var scope = 0
+    }
+
+    private val subsystems = ArrayList<Subsystem>()
+    private val subsystemPhases = ArrayList<Int>()
+    private var subsystemScopes = IntArray(0)
+    private val periodics = ArrayList<Periodic>()
+    private val commands = ArrayList<Command>()
+    private val owners = HashMap<Subsystem, Command>()
+
+    var cycle = 0L
+        private set
+
+    var profiler: LoopProfiler? = null
+        set(value) {
+            field = value
+            registerScopes()
+        }
+    private var readScope = 0
+    private var commandScope = 0
+    private var flushScope = 0
+
+    private var cycleStartNanos = 0L
+
+    var lastPeriodMs = 0.0
+        private set
+    var lastWorkMs = 0.0
+        private set
+    var meanPeriodMs = 0.0
+        private set
+    var jitterMs = 0.0
+        private set
+    var maxJitterMs = 0.0
+        private set
+
+    fun register(vararg subsystems: Subsystem) {
+        for (subsystem in subsystems) {
+            subsystemPhases.add(nextPhase(subsystem.periodDivisor))
+            this.subsystems.add(subsystem)
+        }
+        registerScopes()
+    }
+
+    /** Adds work that isn't owned by a subsystem, such as follower updates or field drawing. */
+    @JvmOverloads
+    fun addPeriodic(divisor: Int, action: Runnable, name: String = "periodic ${periodics.size}") {
+        periodics.add(Periodic(divisor, nextPhase(divisor), action, name))
+        registerScopes()
+    }
+
+    /**
+     * Schedules [command], cancelling whatever currently holds its requirements. Returns false and
+     * leaves everything alone if one of those holders isn't interruptible.
+     */
+    fun schedule(command: Command): Boolean {
+        if (command in commands) return true
+
+        for (requirement in command.requirements) {
+            val owner = owners[requirement] ?: continue
+            if (!owner.interruptible) return false
+        }
+        for (requirement in command.requirements) {
+            owners[requirement]?.let { cancel(it) }
+        }
+
+        for (requirement in command.requirements) owners[requirement] = command
+        commands.add(command)
+        command.initialize()
+        return true
+    }
+
+    fun cancel(command: Command) {
+        if (!commands.remove(command)) return
+        command.end(true)
+        release(command)
+    }
+
+    fun cancelAll() {
+        while (commands.isNotEmpty()) cancel(commands[commands.size - 1])
+    }
+
+    fun isScheduled(command: Command) = command in commands
+
+    fun run() {
+        val start = System.nanoTime()
+        if (cycleStartNanos != 0L) recordPeriod(start - cycleStartNanos)
+        cycleStartNanos = start
+
+        val profiler = profiler
+        profiler?.beginCycle()
+
+        var mark = profiler?.start() ?: 0L
+        hardware.update()
+        profiler?.stop(readScope, mark)
+
+        for (i in subsystems.indices) {
+            val subsystem = subsystems[i]
+            if (due(subsystem.periodDivisor, subsystemPhases[i])) {
+                mark = profiler?.start() ?: 0L
+                subsystem.periodic()
+                profiler?.stop(subsystemScopes[i], mark)
+            }
+        }
+
+        mark = profiler?.start() ?: 0L
+        var i = 0
+        while (i < commands.size) {
+            val command = commands[i]
+            command.execute()
+            if (command.isFinished()) {
+                commands.removeAt(i)
+                command.end(false)
+                release(command)
+            } else {
+                i++
+            }
+        }
+        profiler?.stop(commandScope, mark)
+
+        for (j in periodics.indices) {
+            val periodic = periodics[j]
+            if (due(periodic.divisor, periodic.phase)) {
+                mark = profiler?.start() ?: 0L
+                periodic.action.run()
+                profiler?.stop(periodic.scope, mark)
+            }
+        }
+
+        mark = profiler?.start() ?: 0L
+        hardware.outputs.flush()
+        profiler?.stop(flushScope, mark)
+        cycle++
+
+        lastWorkMs = (System.nanoTime() - start) / 1e6
+        profiler?.endCycle()
+        if (targetPeriodMs > 0) waitForPeriod(start)
+    }
+
+    fun resetTiming() {
+        cycleStartNanos = 0L
+        meanPeriodMs = 0.0
+        jitterMs = 0.0
+        maxJitterMs = 0.0
+    }
+
+    private fun due(divisor: Int, phase: Int) = divisor <= 1 || cycle % divisor == phase.toLong()
+
+    private fun nextPhase(divisor: Int): Int {
+        if (divisor <= 1) return 0
+        val used = subsystems.count { it.periodDivisor == divisor } + periodics.count { it.divisor == divisor }
+        return used % divisor
+    }
+
+    private fun registerScopes() {
+        val profiler = profiler ?: return
+        readScope = profiler.scope("bulk read")
+        subsystemScopes = IntArray(subsystems.size) { profiler.scope(subsystems[it].javaClass.simpleName) }
+        commandScope = profiler.scope("commands")
+        for (periodic in periodics) periodic.scope = profiler.scope(periodic.name)
+        flushScope = profiler.scope("flush")
+    }
+
+    private fun release(command: Command) {
+        for (requirement in command.requirements) {
+            if (owners[requirement] === command) owners.remove(requirement)
+        }
+    }
+
+    private fun recordPeriod(periodNanos: Long) {
+        lastPeriodMs = periodNanos / 1e6
+        meanPeriodMs = if (meanPeriodMs == 0.0) lastPeriodMs else meanPeriodMs + (lastPeriodMs - meanPeriodMs) * SMOOTHING
+
+        val reference = if (targetPeriodMs > 0) targetPeriodMs else meanPeriodMs
+        val deviation = Math.abs(lastPeriodMs - reference)
+        jitterMs += (deviation - jitterMs) * SMOOTHING
+        if (deviation > maxJitterMs) maxJitterMs = deviation
+    }
+
+    private fun waitForPeriod(start: Long) {
+        val deadline = start + (targetPeriodMs * 1e6).toLong()
+        while (true) {
+            val remaining = deadline - System.nanoTime()
+            if (remaining <= 0) return
+            // parkNanos overshoots by roughly a scheduler tick, so spin out the last stretch.
+            if (remaining > SPIN_THRESHOLD_NANOS) LockSupport.parkNanos(remaining - SPIN_THRESHOLD_NANOS)
+            else Thread.yield()
+        }
+    }
+
+    companion object {
+        private const val SMOOTHING = 0.05
+        private const val SPIN_THRESHOLD_NANOS = 1_000_000L
+    }
+}
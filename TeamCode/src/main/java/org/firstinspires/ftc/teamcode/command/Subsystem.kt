@@ -0,0 +1,10 @@
+package org.firstinspires.ftc.teamcode.command
+
+interface Subsystem {
+    /** Called by the [Scheduler] every [periodDivisor] cycles. */
+    fun periodic() {}
+
+    /** Runs [periodic] once every this many cycles; 1 means every cycle. */
+    val periodDivisor: Int
+        get() = 1
+}
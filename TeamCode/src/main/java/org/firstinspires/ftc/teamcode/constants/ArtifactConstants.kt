@@ -0,0 +1,27 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object ArtifactConstants {
+    /** Frames are shrunk by this factor before thresholding. Read when the camera opens. */
+    @JvmField var downscale = 4
+    /** Fraction of the frame, from the top, that's above the floor and never searched. Read when the camera opens. */
+    @JvmField var roiTop = 0.35
+
+    // OpenCV HSV: hue 0-180, saturation and value 0-255.
+    @JvmField var purpleLow = doubleArrayOf(125.0, 60.0, 40.0)
+    @JvmField var purpleHigh = doubleArrayOf(160.0, 255.0, 255.0)
+    @JvmField var greenLow = doubleArrayOf(35.0, 60.0, 40.0)
+    @JvmField var greenHigh = doubleArrayOf(80.0, 255.0, 255.0)
+
+    @JvmField var minArea = 20 // downscaled pixels
+    @JvmField var openKernel = 3 // pixels; read when the camera opens
+
+    // Camera mounting, in inches and degrees, for placing artifacts on the floor.
+    @JvmField var cameraHeight = 8.0
+    @JvmField var cameraPitch = 20.0 // down from horizontal
+    @JvmField var cameraForward = 6.0
+    @JvmField var cameraLeft = 0.0
+    @JvmField var artifactRadius = 2.5
+}
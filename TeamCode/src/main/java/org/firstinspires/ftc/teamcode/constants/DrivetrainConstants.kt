@@ -0,0 +1,19 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object DrivetrainConstants {
+    @JvmField var maxPower = 1.0
+
+    // Largest change in each command per second; 0 turns limiting off for that axis.
+    @JvmField var forwardSlew = 4.0
+    @JvmField var strafeSlew = 4.0
+    @JvmField var turnSlew = 6.0
+
+    @JvmField var headingP = 1.2
+    @JvmField var headingD = 0.05
+    @JvmField var turnDeadband = 0.05
+    /** How long after the turn stick is released before the heading is locked, in seconds. */
+    @JvmField var headingLockDelay = 0.25
+}
@@ -0,0 +1,8 @@
+package org.firstinspires.ftc.teamcode.constants
+
+enum class EArtifact {
+    NONE,
+    PURPLE,
+    GREEN,
+    UNKNOWN // loaded, colour not seen
+}
@@ -2,5 +2,5 @@ package org.firstinspires.ftc.teamcode.constants
 
 enum class EPipeline {
     APRILTAG,
-//    ARTIFACT
+    ARTIFACT
 }
\ No newline at end of file
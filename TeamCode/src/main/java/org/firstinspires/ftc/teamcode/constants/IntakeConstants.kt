@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object IntakeConstants {
+    @JvmField var collectPower = 0.9
+    @JvmField var ejectPower = -0.9
+
+    /** Motor current is read once every this many cycles; it isn't part of the bulk read. */
+    @JvmField var currentSampleDivisor = 5
+    @JvmField var stallCurrent = 5.0 // amps
+    @JvmField var stallVelocity = 150.0 // ticks per second
+    @JvmField var stallSeconds = 0.12
+    /** Ignore stalls for this long after the intake starts, while it spins up. */
+    @JvmField var spinUpSeconds = 0.25
+
+    @JvmField var unjamSeconds = 0.2
+    @JvmField var unjamEnabled = true
+}
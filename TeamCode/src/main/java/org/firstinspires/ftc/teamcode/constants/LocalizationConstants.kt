@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object LocalizationConstants {
+    @JvmField var visionGain = 0.3
+    @JvmField var maxVisionError = 24.0 // in inches
+    @JvmField var maxVisionLatencyMs = 150.0
+    @JvmField var minVisionTags = 1
+}
@@ -0,0 +1,11 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object LoggingConstants {
+    @JvmField var enabled = false
+    @JvmField var directory = "/sdcard/FIRST/apex/logs"
+    @JvmField var keepFiles = 20 // oldest logs in the directory are deleted past this
+    @JvmField var ringCapacity = 1024 // records, about five seconds at 200 Hz
+}
@@ -0,0 +1,22 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object OuttakeConstants {
+    // Velocities are in encoder ticks per second, feedforward gains in volts.
+    @JvmField var launchVelocity = 1800.0
+
+    @JvmField var kS = 0.12
+    @JvmField var kV = 0.0052
+    @JvmField var kA = 0.0006
+
+    @JvmField var kP = 0.004
+    @JvmField var kI = 0.0
+    @JvmField var kD = 0.0
+
+    @JvmField var maxAcceleration = 6000.0
+    @JvmField var tolerance = 40.0
+    @JvmField var shotDropThreshold = 120.0
+    @JvmField var readyCycles = 3
+}
@@ -0,0 +1,10 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object ProfilerConstants {
+    @JvmField var enabled = false
+    @JvmField var publishRateHz = 1.0
+    @JvmField var windowed = true // reset the histograms after every publish
+}
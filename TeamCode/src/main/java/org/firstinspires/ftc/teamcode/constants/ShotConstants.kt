@@ -0,0 +1,34 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object ShotConstants {
+    @JvmField var blueGoalTag = 20
+    @JvmField var redGoalTag = 24
+
+    // Default table until one is calibrated: goal distance in inches -> flywheel ticks per second.
+    @JvmField var defaultDistances = doubleArrayOf(36.0, 60.0, 84.0, 108.0, 132.0)
+    @JvmField var defaultVelocities = doubleArrayOf(1450.0, 1620.0, 1800.0, 1960.0, 2120.0)
+
+    // Measured time of flight for the default table, in seconds.
+    @JvmField var defaultFlightTimes = doubleArrayOf(0.42, 0.55, 0.68, 0.80, 0.93)
+
+    // Goal centres in Pedro coordinates, inches.
+    @JvmField var blueGoalX = 12.0
+    @JvmField var blueGoalY = 132.0
+    @JvmField var redGoalX = 132.0
+    @JvmField var redGoalY = 132.0
+
+    // Where the artifact leaves the robot, robot frame (forward, left) in inches, and which way the
+    // launcher points relative to the robot's heading.
+    @JvmField var launcherForward = -4.0
+    @JvmField var launcherLeft = 0.0
+    @JvmField var launcherHeadingOffset = Math.PI
+
+    /** Time from solving to the artifact leaving, used to lead the robot's own motion. */
+    @JvmField var releaseLatencySeconds = 0.08
+
+    @JvmField var tablePath = "/sdcard/FIRST/apex/shot_table.bin"
+    @JvmField var calibrationBinInches = 12.0
+}
@@ -0,0 +1,14 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object SpindexerConstants {
+    // Servo positions that line each slot up with the intake and with the transfer.
+    @JvmField var intakePositions = doubleArrayOf(0.2639, 0.5972, 0.9306)
+    @JvmField var transferPositions = doubleArrayOf(0.0972, 0.4306, 0.7639)
+
+    @JvmField var travelRate = 1.5 // servo units per second under load
+    @JvmField var settleSeconds = 0.06
+    @JvmField var preIndex = true
+}
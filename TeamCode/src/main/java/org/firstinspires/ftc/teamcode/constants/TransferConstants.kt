@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object TransferConstants {
+    @JvmField var restPosition = 0.2639
+    @JvmField var firePosition = 0.62
+
+    @JvmField var travelRate = 6.0 // servo units per second
+    @JvmField var settleSeconds = 0.02
+}
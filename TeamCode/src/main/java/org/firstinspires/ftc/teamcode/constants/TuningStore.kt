@@ -0,0 +1,110 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.channels.FileChannel
+
+/**
+ * Values accepted by the tuners, kept on the hub so they survive a restart. The file is a 16 byte
+ * header (magic, version, slot count, checksum) followed by one double per [Key], NaN for keys
+ * that were never tuned. [load] maps it and copies the slots out in one bulk read; there's no
+ * parsing or reflection on the init path.
+ *
+ * [save] writes and syncs a temporary file, then renames it over the old one, so a brown-out
+ * mid-save leaves either the old constants or the new ones, never a mix. The checksum catches a
+ * file that was torn some other way.
+ */
+class TuningStore(val file: File) {
+    /** Slots are the ordinals, so only ever add keys at the end. */
+    enum class Key {
+        X_VELOCITY,
+        Y_VELOCITY,
+        FORWARD_ZERO_POWER_ACCELERATION,
+        LATERAL_ZERO_POWER_ACCELERATION
+    }
+
+    private val values = DoubleArray(SLOTS) { Double.NaN }
+
+    operator fun get(key: Key): Double = values[key.ordinal]
+
+    fun has(key: Key): Boolean = !values[key.ordinal].isNaN()
+
+    operator fun set(key: Key, value: Double) {
+        values[key.ordinal] = value
+    }
+
+    fun remove(key: Key) {
+        values[key.ordinal] = Double.NaN
+    }
+
+    /**
+     * Replaces every value with the file's. Returns false, leaving the store empty, if there's no
+     * file or it isn't a valid one. Files from before keys were added just leave the new keys unset.
+     */
+    fun load(): Boolean {
+        values.fill(Double.NaN)
+        if (!file.isFile) return false
+        try {
+            RandomAccessFile(file, "r").use { access ->
+                val length = access.length()
+                if (length < HEADER_SIZE) return false
+                val buffer = access.channel.map(FileChannel.MapMode.READ_ONLY, 0, length)
+                buffer.order(ByteOrder.LITTLE_ENDIAN)
+                if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) return false
+                val slots = buffer.getInt(8)
+                if (slots < 0 || HEADER_SIZE + slots.toLong() * 8 != length) return false
+
+                val read = DoubleArray(slots)
+                buffer.position(HEADER_SIZE)
+                buffer.asDoubleBuffer().get(read)
+                if (checksum(read, slots) != buffer.getInt(12)) return false
+                System.arraycopy(read, 0, values, 0, Math.min(slots, SLOTS))
+            }
+        } catch (e: IOException) {
+            return false
+        }
+        return true
+    }
+
+    fun save() {
+        file.parentFile?.mkdirs()
+        val temp = File(file.path + ".tmp")
+        val buffer = ByteBuffer.allocate(HEADER_SIZE + SLOTS * 8).order(ByteOrder.LITTLE_ENDIAN)
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(SLOTS).putInt(checksum(values, SLOTS))
+        for (value in values) buffer.putDouble(value)
+        buffer.flip()
+
+        RandomAccessFile(temp, "rw").use { access ->
+            access.setLength(0)
+            while (buffer.hasRemaining()) access.channel.write(buffer)
+            access.channel.force(true)
+        }
+        if (!temp.renameTo(file)) throw IOException("Couldn't replace $file")
+    }
+
+    override fun toString(): String {
+        val builder = StringBuilder()
+        for (key in KEYS) if (has(key)) builder.append(key.name).append(' ').append(get(key)).append('\n')
+        return builder.toString()
+    }
+
+    companion object {
+        const val MAGIC = 0x41505854 // "APXT"
+        const val VERSION = 1
+        const val HEADER_SIZE = 16
+
+        private val KEYS = Key.values()
+        private val SLOTS = KEYS.size
+
+        private fun checksum(values: DoubleArray, count: Int): Int {
+            var hash = -0x340d631b7bdddcdbL // FNV-1a offset basis
+            for (i in 0 until count) {
+                hash = (hash xor java.lang.Double.doubleToRawLongBits(values[i])) * 0x100000001b3L
+            }
+            return (hash xor (hash ushr 32)).toInt()
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object VoltageConstants {
+    /** Battery reads per second. Each one is a hub transaction outside the bulk read. */
+    @JvmField var sampleRateHz = 5.0
+    /** Low-pass time constant, in seconds, so a current spike doesn't swing every output. */
+    @JvmField var filterSeconds = 0.5
+    @JvmField var nominalVoltage = 12.0
+    /** Reads below this are a hub dropping out, not the battery, and are ignored. */
+    @JvmField var minimumVoltage = 7.0
+    @JvmField var compensation = true
+}
@@ -0,0 +1,28 @@
+package org.firstinspires.ftc.teamcode.constants
+
+import com.bylazar.configurables.annotations.Configurable
+
+@Configurable
+object WebcamConstants {
+    @JvmField var cameraName = "Webcam 1"
+    // Must match a size calibrated in res/xml/teamwebcamcalibrations.xml.
+    @JvmField var width = 640
+    @JvmField var height = 480
+    @JvmField var liveView = false
+
+    @JvmField var tagSizeInches = 6.5
+    @JvmField var detectorThreads = 2
+
+    // Decimation by the last nearest tag's range, in inches.
+    @JvmField var nearRange = 36.0
+    @JvmField var farRange = 84.0
+    @JvmField var nearDecimation = 3.0
+    @JvmField var midDecimation = 2.0
+    @JvmField var farDecimation = 1.0
+    @JvmField var searchDecimation = 2.0
+
+    @JvmField var roiMargin = 0.75
+    @JvmField var roiMinSize = 96
+    /** Frames without a tag before the search goes back to the full frame. */
+    @JvmField var lostFrames = 3
+}
@@ -0,0 +1,108 @@
+package org.firstinspires.ftc.teamcode.control
+
+/**
+ * Time series and fits for characterizing one drive axis. The tuner records a slow power ramp
+ * ([QUASISTATIC]), a constant-power [STEP] and a zero-power [COAST] into primitive columns, then
+ * [fit] runs three least-squares regressions on the whole record:
+ *
+ *  - quasi-static: volts = kS + kV·v, where acceleration is negligible
+ *  - step: volts − kS − kV·v = kA·a, with a from a central difference of the velocity column
+ *  - coast: v = v0 + d·t, where d is the zero power acceleration Pedro expects (negative)
+ *
+ * Velocities and volts are stored as magnitudes, so the tests can run in whichever direction
+ * the field has room for.
+ */
+class DriveCharacterization(val capacity: Int) {
+    val time = DoubleArray(capacity)
+    val volts = DoubleArray(capacity)
+    val velocity = DoubleArray(capacity)
+    val phase = ByteArray(capacity)
+
+    var size = 0
+        private set
+
+    val feedforward = MotorFeedforward(Double.NaN, Double.NaN, Double.NaN)
+    val quasiStaticFit = LeastSquares(2)
+    val stepFit = LeastSquares(1)
+    val coastFit = LeastSquares(2)
+
+    /** Coast deceleration, in inches per second squared. Negative, as Pedro stores it. */
+    var zeroPowerAcceleration = Double.NaN
+        private set
+
+    /** Fastest velocity seen during the step. */
+    var peakVelocity = 0.0
+        private set
+
+    /** Appends a sample. Returns false once the buffers are full; later samples are dropped. */
+    fun add(phase: Int, seconds: Double, volts: Double, velocity: Double): Boolean {
+        if (size == capacity) return false
+        time[size] = seconds
+        this.volts[size] = Math.abs(volts)
+        this.velocity[size] = Math.abs(velocity)
+        this.phase[size] = phase.toByte()
+        if (phase == STEP && this.velocity[size] > peakVelocity) peakVelocity = this.velocity[size]
+        size++
+        return true
+    }
+
+    fun clear() {
+        size = 0
+        peakVelocity = 0.0
+        zeroPowerAcceleration = Double.NaN
+        feedforward.kS = Double.NaN
+        feedforward.kV = Double.NaN
+        feedforward.kA = Double.NaN
+        quasiStaticFit.clear()
+        stepFit.clear()
+        coastFit.clear()
+    }
+
+    /**
+     * Fits every phase that has data. Samples slower than [minVelocity] are left out since
+     * stiction and encoder quantization dominate there. Returns false if kS and kV couldn't be
+     * fit, which the other two fits depend on.
+     */
+    fun fit(minVelocity: Double): Boolean {
+        quasiStaticFit.clear()
+        stepFit.clear()
+        coastFit.clear()
+
+        for (i in 0 until size) {
+            if (phase[i].toInt() == QUASISTATIC && velocity[i] > minVelocity) {
+                quasiStaticFit.add(volts[i], 1.0, velocity[i])
+            }
+        }
+        if (!quasiStaticFit.solve()) return false
+        feedforward.kS = quasiStaticFit.coefficients[0]
+        feedforward.kV = quasiStaticFit.coefficients[1]
+
+        for (i in 1 until size - 1) {
+            if (phase[i].toInt() != STEP || velocity[i] <= minVelocity) continue
+            if (phase[i - 1].toInt() != STEP || phase[i + 1].toInt() != STEP) continue
+            val dt = time[i + 1] - time[i - 1]
+            if (dt <= 0) continue
+            val acceleration = (velocity[i + 1] - velocity[i - 1]) / dt
+            stepFit.add(volts[i] - feedforward.kS - feedforward.kV * velocity[i], acceleration)
+        }
+        feedforward.kA = if (stepFit.solve()) stepFit.coefficients[0] else Double.NaN
+
+        var start = Double.NaN
+        for (i in 0 until size) {
+            if (phase[i].toInt() != COAST || velocity[i] <= minVelocity) continue
+            if (start.isNaN()) start = time[i]
+            coastFit.add(velocity[i], 1.0, time[i] - start)
+        }
+        zeroPowerAcceleration = if (coastFit.solve()) coastFit.coefficients[1] else Double.NaN
+        return true
+    }
+
+    /** Steady-state velocity the fit predicts at full power on a battery at [batteryVolts]. */
+    fun maxVelocity(batteryVolts: Double): Double = (batteryVolts - feedforward.kS) / feedforward.kV
+
+    companion object {
+        const val QUASISTATIC = 0
+        const val STEP = 1
+        const val COAST = 2
+    }
+}
@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.control
+
+/**
+ * Velocity controller for a flywheel. The setpoint is ramped at [maxAcceleration] so the kA term
+ * sees a real acceleration, feedforward and PID are summed in volts and divided by the measured
+ * battery voltage to get a motor power. Coming out of a stop or [reset], the ramp starts from the
+ * measured velocity rather than zero.
+ *
+ * The wheel counts as ready once the low-pass filtered error has stayed inside [tolerance] for
+ * [readyCycles] updates. A drop of more than [shotDropThreshold] while ready is treated as a shot,
+ * and the time until the wheel is ready again is kept in [lastRecoveryMs].
+ */
+class FlywheelController(
+    val feedforward: MotorFeedforward,
+    val pid: PIDController,
+    var maxAcceleration: Double,
+    var tolerance: Double,
+    var shotDropThreshold: Double,
+    var readyCycles: Int = 3,
+    var errorFilterGain: Double = 0.5
+) {
+    var target = 0.0
+    var reference = 0.0
+        private set
+    var filteredError = 0.0
+        private set
+    var ready = false
+        private set
+    var shotCount = 0
+        private set
+    var lastRecoveryMs = 0.0
+        private set
+
+    private var cyclesInTolerance = 0
+    private var seeded = false
+    private var recovering = false
+    private var dropTimeNanos = 0L
+
+    /** Returns the motor power for this cycle. [dt] is in seconds. */
+    fun update(measured: Double, voltage: Double, dt: Double, nowNanos: Long): Double {
+        if (target == 0.0) {
+            reset()
+            return 0.0
+        }
+
+        // A stopped wheel floats, so it may still be coasting. Ramp from where it actually is
+        // instead of from zero, or the PID would brake it on the way back up.
+        if (!seeded) {
+            reference = measured
+            pid.reset()
+            seeded = true
+        }
+
+        val step = maxAcceleration * dt
+        val previousReference = reference
+        reference += (target - reference).coerceIn(-step, step)
+        val acceleration = if (dt > 0.0) (reference - previousReference) / dt else 0.0
+
+        val error = reference - measured
+        filteredError += (error - filteredError) * errorFilterGain
+        updateReady(error, nowNanos)
+
+        val volts = feedforward.calculate(reference, acceleration) + pid.calculate(error, dt)
+        return (volts / voltage).coerceIn(-1.0, 1.0)
+    }
+
+    fun reset() {
+        reference = 0.0
+        filteredError = 0.0
+        ready = false
+        recovering = false
+        cyclesInTolerance = 0
+        seeded = false
+        pid.reset()
+    }
+
+    private fun updateReady(error: Double, nowNanos: Long) {
+        if (ready && error > shotDropThreshold) {
+            ready = false
+            recovering = true
+            dropTimeNanos = nowNanos
+            cyclesInTolerance = 0
+            shotCount++
+            return
+        }
+
+        val settled = reference == target && Math.abs(filteredError) < tolerance
+        cyclesInTolerance = if (settled) cyclesInTolerance + 1 else 0
+
+        if (!ready && cyclesInTolerance >= readyCycles) {
+            ready = true
+            if (recovering) {
+                lastRecoveryMs = (nowNanos - dropTimeNanos) / 1e6
+                recovering = false
+            }
+        } else if (ready && !settled) {
+            ready = false
+        }
+    }
+}
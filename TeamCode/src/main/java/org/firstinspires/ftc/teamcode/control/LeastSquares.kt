@@ -0,0 +1,99 @@
+package org.firstinspires.ftc.teamcode.control
+
+/**
+ * Ordinary least squares for small models, y = c0 * x0 + c1 * x1 + ... with up to [MAX_TERMS]
+ * regressors. Samples are folded into the normal equations as they're added, so nothing grows
+ * with the sample count; [solve] does Gaussian elimination in preallocated arrays and also
+ * reports R² and the RMS residual.
+ */
+class LeastSquares(val terms: Int) {
+    init {
+        require(terms in 1..MAX_TERMS) { "LeastSquares supports 1 to $MAX_TERMS terms" }
+    }
+
+    private val normal = Array(terms) { DoubleArray(terms + 1) }
+    private val work = Array(terms) { DoubleArray(terms + 1) }
+    private val row = DoubleArray(terms)
+
+    val coefficients = DoubleArray(terms)
+
+    var count = 0
+        private set
+    private var sumY = 0.0
+    private var sumYY = 0.0
+
+    var rSquared = Double.NaN
+        private set
+    var rmse = Double.NaN
+        private set
+
+    fun clear() {
+        for (r in normal) r.fill(0.0)
+        count = 0
+        sumY = 0.0
+        sumYY = 0.0
+        coefficients.fill(Double.NaN)
+        rSquared = Double.NaN
+        rmse = Double.NaN
+    }
+
+    fun add(y: Double, x0: Double) = add(y, x0, 0.0, 0.0, 0.0)
+
+    fun add(y: Double, x0: Double, x1: Double) = add(y, x0, x1, 0.0, 0.0)
+
+    fun add(y: Double, x0: Double, x1: Double, x2: Double) = add(y, x0, x1, x2, 0.0)
+
+    fun add(y: Double, x0: Double, x1: Double, x2: Double, x3: Double) {
+        if (y.isNaN() || x0.isNaN() || x1.isNaN() || x2.isNaN() || x3.isNaN()) return
+        row[0] = x0
+        if (terms > 1) row[1] = x1
+        if (terms > 2) row[2] = x2
+        if (terms > 3) row[3] = x3
+        for (i in 0 until terms) {
+            for (j in 0 until terms) normal[i][j] += row[i] * row[j]
+            normal[i][terms] += row[i] * y
+        }
+        count++
+        sumY += y
+        sumYY += y * y
+    }
+
+    /** Fits the coefficients. Returns false if there aren't enough samples or the data is degenerate. */
+    fun solve(): Boolean {
+        if (count < terms) return false
+        for (i in 0 until terms) System.arraycopy(normal[i], 0, work[i], 0, terms + 1)
+
+        for (col in 0 until terms) {
+            var pivot = col
+            for (r in col + 1 until terms) if (Math.abs(work[r][col]) > Math.abs(work[pivot][col])) pivot = r
+            if (Math.abs(work[pivot][col]) < 1e-12) return false
+            val swap = work[col]
+            work[col] = work[pivot]
+            work[pivot] = swap
+
+            for (r in 0 until terms) {
+                if (r == col) continue
+                val factor = work[r][col] / work[col][col]
+                for (k in col..terms) work[r][k] -= factor * work[col][k]
+            }
+        }
+        for (i in 0 until terms) coefficients[i] = work[i][terms] / work[i][i]
+
+        // Residual sum of squares from the normal equations: y'y - 2c'X'y + c'X'Xc.
+        var fitted = 0.0
+        var quadratic = 0.0
+        for (i in 0 until terms) {
+            fitted += coefficients[i] * normal[i][terms]
+            for (j in 0 until terms) quadratic += coefficients[i] * normal[i][j] * coefficients[j]
+        }
+        val residual = Math.max(0.0, sumYY - 2 * fitted + quadratic)
+        val total = sumYY - sumY * sumY / count
+        rSquared = if (total > 0) 1 - residual / total else Double.NaN
+        rmse = Math.sqrt(residual / count)
+        return true
+    }
+
+    companion object {
+        const val MAX_TERMS = 4
+    }
+}
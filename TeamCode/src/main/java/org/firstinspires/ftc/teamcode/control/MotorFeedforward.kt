@@ -0,0 +1,7 @@
+package org.firstinspires.ftc.teamcode.control
+
+/** Voltage needed to hold a velocity and acceleration: kS·sgn(v) + kV·v + kA·a. */
+class MotorFeedforward(var kS: Double, var kV: Double, var kA: Double = 0.0) {
+    fun calculate(velocity: Double, acceleration: Double = 0.0): Double =
+        kS * Math.signum(velocity) + kV * velocity + kA * acceleration
+}
@@ -0,0 +1,26 @@
+package org.firstinspires.ftc.teamcode.control
+
+class PIDController(
+    var kP: Double,
+    var kI: Double = 0.0,
+    var kD: Double = 0.0,
+    var integralLimit: Double = Double.POSITIVE_INFINITY
+) {
+    private var integral = 0.0
+    private var previousError = Double.NaN
+
+    fun calculate(error: Double, dt: Double): Double {
+        if (dt <= 0.0) return kP * error
+
+        integral = (integral + error * dt).coerceIn(-integralLimit, integralLimit)
+        val derivative = if (previousError.isNaN()) 0.0 else (error - previousError) / dt
+        previousError = error
+
+        return kP * error + kI * integral + kD * derivative
+    }
+
+    fun reset() {
+        integral = 0.0
+        previousError = Double.NaN
+    }
+}
@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.control
+
+/**
+ * Estimates where a position servo actually is, since it can't be read back. The estimate moves
+ * toward the commanded [target] at [travelRate] servo units per second, and the servo counts as
+ * [arrived] once the estimate has reached the target and a further [settleSeconds] have passed.
+ */
+class ServoTravelModel(var travelRate: Double, var settleSeconds: Double, initial: Double = Double.NaN) {
+    var estimate = initial
+        private set
+    var target = initial
+        private set
+    private var settled = 0.0
+
+    val arrived: Boolean
+        get() = !target.isNaN() && estimate == target && settled >= settleSeconds
+
+    fun command(position: Double) {
+        if (position == target) return
+        target = position
+        settled = 0.0
+        // Nothing is known about where the servo starts, so assume the worst case: it's already there
+        // only after a full-range move.
+        if (estimate.isNaN()) estimate = if (position >= 0.5) 0.0 else 1.0
+    }
+
+    fun update(dt: Double) {
+        if (target.isNaN()) return
+        val error = target - estimate
+        val step = travelRate * dt
+        if (Math.abs(error) <= step) {
+            estimate = target
+            settled += dt - Math.abs(error) / travelRate
+        } else {
+            estimate += Math.signum(error) * step
+        }
+    }
+
+    /** Seconds until the servo would be settled at [position], starting from the current estimate. */
+    fun secondsTo(position: Double): Double {
+        if (estimate.isNaN()) return 1 / travelRate + settleSeconds
+        if (position == target && estimate == target) return Math.max(0.0, settleSeconds - settled)
+        return Math.abs(position - estimate) / travelRate + settleSeconds
+    }
+
+    val secondsRemaining: Double
+        get() = if (target.isNaN()) 0.0 else secondsTo(target)
+}
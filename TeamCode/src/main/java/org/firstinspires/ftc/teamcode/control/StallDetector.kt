@@ -0,0 +1,38 @@
+package org.firstinspires.ftc.teamcode.control
+
+/**
+ * Flags a motor that's drawing stall current without turning. Current comes from a separate hub
+ * read, so [update] is meant to be called only on cycles that sampled it, alongside the velocity
+ * from the same cycle's bulk read. Both conditions have to hold for [stallSeconds] before
+ * [stalled] goes true, which rides out the current spike of a normal start.
+ */
+class StallDetector(
+    var currentThreshold: Double,
+    var velocityThreshold: Double,
+    var stallSeconds: Double
+) {
+    private var stallStartNanos = -1L
+
+    var stalled = false
+        private set
+
+    /** The last current passed to [update], in amps. */
+    var current = Double.NaN
+        private set
+
+    fun update(current: Double, velocity: Double, nowNanos: Long): Boolean {
+        this.current = current
+        if (current < currentThreshold || Math.abs(velocity) > velocityThreshold) {
+            reset()
+            return false
+        }
+        if (stallStartNanos < 0) stallStartNanos = nowNanos
+        stalled = (nowNanos - stallStartNanos) / 1e9 >= stallSeconds
+        return stalled
+    }
+
+    fun reset() {
+        stallStartNanos = -1L
+        stalled = false
+    }
+}
@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+import com.qualcomm.robotcore.hardware.DcMotor
+
+class CachedMotor internal constructor(
+    owner: OutputCache,
+    val motor: DcMotor,
+    priority: Int,
+    epsilon: Double
+) : CachedOutput(owner, priority, epsilon) {
+    var power: Double
+        get() = if (dirty) pending else lastWritten
+        set(value) = request(value)
+
+    override fun write(value: Double) {
+        motor.power = value
+    }
+}
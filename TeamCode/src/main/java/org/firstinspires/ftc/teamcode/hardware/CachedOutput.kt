@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+/**
+ * An actuator output that remembers the last value sent to the hub and drops writes that land
+ * within [epsilon] of it. Writes go out immediately unless the owning [OutputCache] has a write
+ * budget, in which case they are held until [OutputCache.flush].
+ */
+abstract class CachedOutput internal constructor(
+    private val owner: OutputCache,
+    val priority: Int,
+    var epsilon: Double
+) {
+    var lastWritten = Double.NaN
+        private set
+
+    internal var pending = Double.NaN
+        private set
+    internal var dirty = false
+        private set
+
+    protected fun request(value: Double) {
+        // An exact zero always goes out so a mechanism can't be left creeping at a tiny power.
+        val settling = value == 0.0 && lastWritten != 0.0
+        if (!lastWritten.isNaN() && !settling && Math.abs(value - lastWritten) <= epsilon) {
+            dirty = false
+            owner.writesSuppressed++
+            return
+        }
+
+        pending = value
+        dirty = true
+        if (owner.writeBudget <= 0) flush()
+    }
+
+    /** Forces the next write to reach the hardware, e.g. after the device was reset externally. */
+    fun invalidate() {
+        lastWritten = Double.NaN
+    }
+
+    internal fun flush() {
+        write(pending)
+        lastWritten = pending
+        dirty = false
+        owner.writesIssued++
+    }
+
+    protected abstract fun write(value: Double)
+}
@@ -0,0 +1,18 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+import com.qualcomm.robotcore.hardware.Servo
+
+class CachedServo internal constructor(
+    owner: OutputCache,
+    val servo: Servo,
+    priority: Int,
+    epsilon: Double
+) : CachedOutput(owner, priority, epsilon) {
+    var position: Double
+        get() = if (dirty) pending else lastWritten
+        set(value) = request(value)
+
+    override fun write(value: Double) {
+        servo.position = value
+    }
+}
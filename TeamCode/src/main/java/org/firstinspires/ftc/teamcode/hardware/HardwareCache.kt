@@ -0,0 +1,101 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+import com.qualcomm.hardware.lynx.LynxModule
+import com.qualcomm.robotcore.hardware.DcMotor
+import com.qualcomm.robotcore.hardware.DcMotorEx
+import com.qualcomm.robotcore.hardware.DigitalChannel
+import com.qualcomm.robotcore.hardware.HardwareMap
+import com.qualcomm.robotcore.hardware.Servo
+import org.firstinspires.ftc.teamcode.util.Clock
+
+/**
+ * Owns the bulk-read cycle for every hub. All hubs are switched to MANUAL caching, so the only
+ * bulk reads that happen are the ones triggered right after [update] clears the caches. Every
+ * registered input is sampled there, which means subsystems and the Pedro localizer (which reads
+ * the same hubs) all see one consistent snapshot per control cycle.
+ */
+class HardwareCache(val hardwareMap: HardwareMap) {
+    private val hubs: List<LynxModule> = hardwareMap.getAll(LynxModule::class.java).onEach {
+        it.bulkCachingMode = LynxModule.BulkCachingMode.MANUAL
+    }
+
+    val outputs = OutputCache()
+
+    /** Filtered battery voltage, sampled from [update] at its own low rate. */
+    val voltage = VoltageService(this)
+
+    private val motors = ArrayList<MotorInput>()
+    private val digitals = ArrayList<DigitalInput>()
+
+    var cycle = 0L
+        private set
+    var timestampNanos = 0L
+        private set
+
+    var bulkReads = 0L
+        private set
+    var directTransactions = 0L
+        private set
+
+    /**
+     * Hub transactions issued through this cache so far: bulk reads, output writes and any reads
+     * reported with [countTransaction]. Pedro's own drive writes don't go through here.
+     */
+    val lynxCommands: Long
+        get() = bulkReads + outputs.writesIssued + directTransactions
+
+    /** Clears every hub's bulk cache and re-samples all registered inputs. Call once per loop. */
+    fun update() {
+        for (i in hubs.indices) hubs[i].clearBulkCache()
+        bulkReads += hubs.size
+
+        cycle++
+        timestampNanos = Clock.nanoTime()
+
+        for (i in motors.indices) motors[i].sample()
+        for (i in digitals.indices) digitals[i].sample()
+        voltage.update(timestampNanos)
+    }
+
+    /** Records a read that bypasses the bulk cache, such as the battery voltage. */
+    fun countTransaction() {
+        directTransactions++
+    }
+
+    fun motorInput(name: String): MotorInput =
+        motors.firstOrNull { it.name == name }
+            ?: MotorInput(name, hardwareMap.get(DcMotorEx::class.java, name)).also { motors.add(it) }
+
+    fun digitalInput(name: String): DigitalInput =
+        digitals.firstOrNull { it.name == name }
+            ?: DigitalInput(name, hardwareMap.get(DigitalChannel::class.java, name)).also { digitals.add(it) }
+
+    fun motorOutput(name: String, priority: Int = 0, epsilon: Double = 0.005): CachedMotor =
+        CachedMotor(outputs, hardwareMap.get(DcMotor::class.java, name), priority, epsilon)
+            .also { outputs.register(it) }
+
+    fun servoOutput(name: String, priority: Int = 0, epsilon: Double = 0.001): CachedServo =
+        CachedServo(outputs, hardwareMap.get(Servo::class.java, name), priority, epsilon)
+            .also { outputs.register(it) }
+
+    class MotorInput internal constructor(val name: String, val motor: DcMotorEx) {
+        var position = 0
+            private set
+        var velocity = 0.0
+            private set
+
+        internal fun sample() {
+            position = motor.currentPosition
+            velocity = motor.velocity
+        }
+    }
+
+    class DigitalInput internal constructor(val name: String, private val channel: DigitalChannel) {
+        var state = false
+            private set
+
+        internal fun sample() {
+            state = channel.state
+        }
+    }
+}
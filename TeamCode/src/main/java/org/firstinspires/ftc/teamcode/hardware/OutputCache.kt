@@ -0,0 +1,48 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+/**
+ * Tracks every [CachedOutput] on the robot. With [writeBudget] at 0 outputs write through as soon
+ * as they change; with a positive budget, changed outputs wait for [flush] and at most that many
+ * are sent per cycle, highest [CachedOutput.priority] first. Anything left over stays pending for
+ * the next cycle.
+ */
+class OutputCache {
+    private val outputs = ArrayList<CachedOutput>()
+
+    var writeBudget = 0
+
+    var writesIssued = 0L
+        internal set
+    var writesSuppressed = 0L
+        internal set
+    var writesDeferred = 0L
+        private set
+
+    internal fun register(output: CachedOutput) {
+        var index = outputs.size
+        while (index > 0 && outputs[index - 1].priority < output.priority) index--
+        outputs.add(index, output)
+    }
+
+    /** Sends pending writes within the budget. Call once at the end of each loop. */
+    fun flush() {
+        var remaining = if (writeBudget <= 0) Int.MAX_VALUE else writeBudget
+        for (i in outputs.indices) {
+            val output = outputs[i]
+            if (!output.dirty) continue
+
+            if (remaining > 0) {
+                output.flush()
+                remaining--
+            } else {
+                writesDeferred++
+            }
+        }
+    }
+
+    fun resetCounters() {
+        writesIssued = 0
+        writesSuppressed = 0
+        writesDeferred = 0
+    }
+}
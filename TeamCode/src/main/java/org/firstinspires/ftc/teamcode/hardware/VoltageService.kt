@@ -0,0 +1,56 @@
+package org.firstinspires.ftc.teamcode.hardware
+
+import com.qualcomm.robotcore.hardware.VoltageSensor
+import org.firstinspires.ftc.teamcode.constants.VoltageConstants
+
+/**
+ * Battery voltage shared by every subsystem on a [HardwareCache]. The hub voltage isn't in the
+ * bulk read, so [HardwareCache.update] only samples it [VoltageConstants.sampleRateHz] times a
+ * second and low-pass filters the readings. The filtered value is published through a volatile
+ * field, so the logger and vision threads can read it without locking.
+ *
+ * Until the first sample, and on a robot with no voltage sensor, [voltage] is the nominal voltage
+ * and [compensate] passes powers through unchanged.
+ */
+class VoltageService internal constructor(private val hardware: HardwareCache) {
+    private val sensor: VoltageSensor? = hardware.hardwareMap.voltageSensor.iterator().let {
+        if (it.hasNext()) it.next() else null
+    }
+
+    @Volatile
+    var voltage = VoltageConstants.nominalVoltage
+        private set
+
+    /** The last unfiltered reading, including ones rejected as a dropout. */
+    @Volatile
+    var raw = Double.NaN
+        private set
+
+    var samples = 0L
+        private set
+    private var lastSampleNanos = 0L
+
+    internal fun update(nowNanos: Long) {
+        val sensor = sensor ?: return
+        val rate = VoltageConstants.sampleRateHz
+        if (lastSampleNanos != 0L && (rate <= 0 || nowNanos - lastSampleNanos < 1e9 / rate)) return
+        val dt = if (lastSampleNanos == 0L) 0.0 else (nowNanos - lastSampleNanos) / 1e9
+        lastSampleNanos = nowNanos
+
+        val reading = sensor.voltage
+        hardware.countTransaction()
+        raw = reading
+        if (reading < VoltageConstants.minimumVoltage) return
+
+        val tau = VoltageConstants.filterSeconds
+        voltage = if (samples == 0L || tau <= 0) reading else voltage + (reading - voltage) * dt / (tau + dt)
+        samples++
+    }
+
+    /** Factor that makes a power do on this battery what it would at the nominal voltage. */
+    val scale: Double
+        get() = if (VoltageConstants.compensation) VoltageConstants.nominalVoltage / voltage else 1.0
+
+    /** [power] scaled up for a sagging battery (or down for a fresh one), clipped to ±1. */
+    fun compensate(power: Double): Double = (power * scale).coerceIn(-1.0, 1.0)
+}
@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.localization
+
+/**
+ * Blends delayed absolute pose measurements into an odometry pose. Odometry poses are recorded
+ * every cycle; when a measurement arrives with its capture time, the odometry pose at that time
+ * is interpolated from history and the difference is applied as a rigid correction to every pose
+ * since then, including the current one. Nothing here allocates.
+ */
+class PoseFusion(historySize: Int = 128) {
+    private val history = PoseRingBuffer(historySize)
+
+    /** Fraction of each measured error that is applied. */
+    var gain = 0.3
+    /** Measurements further than this from odometry, in inches, are treated as outliers. */
+    var maxTranslationError = 24.0
+
+    var x = 0.0
+        private set
+    var y = 0.0
+        private set
+    var heading = 0.0
+        private set
+
+    var accepted = 0
+        private set
+    var rejected = 0
+        private set
+
+    private var pastX = 0.0
+    private var pastY = 0.0
+    private var pastHeading = 0.0
+
+    fun record(timeNanos: Long, x: Double, y: Double, heading: Double) {
+        history.add(timeNanos, x, y, heading)
+        this.x = x
+        this.y = y
+        this.heading = heading
+    }
+
+    fun reset() {
+        history.clear()
+    }
+
+    /**
+     * Applies a measurement captured at [captureNanos]. Returns true if [x], [y] and [heading]
+     * changed and should be pushed back into the localizer. A NaN [measuredHeading] means the
+     * measurement has no heading of its own, and only the translation is corrected.
+     */
+    fun correct(captureNanos: Long, measuredX: Double, measuredY: Double, measuredHeading: Double): Boolean {
+        val index = history.floorIndex(captureNanos)
+        if (index < 0) {
+            rejected++
+            return false
+        }
+        interpolate(index, captureNanos)
+
+        val errorX = measuredX - pastX
+        val errorY = measuredY - pastY
+        if (errorX * errorX + errorY * errorY > maxTranslationError * maxTranslationError) {
+            rejected++
+            return false
+        }
+
+        val dx = gain * errorX
+        val dy = gain * errorY
+        val dTheta = if (measuredHeading.isNaN()) 0.0 else gain * wrap(measuredHeading - pastHeading)
+        val cos = Math.cos(dTheta)
+        val sin = Math.sin(dTheta)
+
+        // Rotate everything since the capture about the past pose, then translate it.
+        for (i in index until history.size) {
+            val relX = history.x(i) - pastX
+            val relY = history.y(i) - pastY
+            history.set(
+                i,
+                pastX + relX * cos - relY * sin + dx,
+                pastY + relX * sin + relY * cos + dy,
+                wrap(history.heading(i) + dTheta)
+            )
+        }
+
+        val newest = history.size - 1
+        x = history.x(newest)
+        y = history.y(newest)
+        heading = history.heading(newest)
+        accepted++
+        return true
+    }
+
+    private fun interpolate(index: Int, timeNanos: Long) {
+        if (index == history.size - 1) {
+            pastX = history.x(index)
+            pastY = history.y(index)
+            pastHeading = history.heading(index)
+            return
+        }
+
+        val t0 = history.time(index)
+        val t1 = history.time(index + 1)
+        val t = if (t1 == t0) 0.0 else (timeNanos - t0).toDouble() / (t1 - t0)
+        pastX = history.x(index) + (history.x(index + 1) - history.x(index)) * t
+        pastY = history.y(index) + (history.y(index + 1) - history.y(index)) * t
+        pastHeading = history.heading(index) + wrap(history.heading(index + 1) - history.heading(index)) * t
+    }
+
+    companion object {
+        fun wrap(angle: Double): Double {
+            var a = angle
+            while (a > Math.PI) a -= 2 * Math.PI
+            while (a <= -Math.PI) a += 2 * Math.PI
+            return a
+        }
+    }
+}
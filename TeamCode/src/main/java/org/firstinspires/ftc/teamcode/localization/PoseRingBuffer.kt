@@ -0,0 +1,57 @@
+package org.firstinspires.ftc.teamcode.localization
+
+/** Fixed-size history of timestamped poses, stored in parallel primitive arrays. */
+class PoseRingBuffer(val capacity: Int) {
+    private val times = LongArray(capacity)
+    private val xs = DoubleArray(capacity)
+    private val ys = DoubleArray(capacity)
+    private val headings = DoubleArray(capacity)
+    private var head = 0
+
+    var size = 0
+        private set
+
+    fun add(timeNanos: Long, x: Double, y: Double, heading: Double) {
+        times[head] = timeNanos
+        xs[head] = x
+        ys[head] = y
+        headings[head] = heading
+        head = (head + 1) % capacity
+        if (size < capacity) size++
+    }
+
+    fun clear() {
+        head = 0
+        size = 0
+    }
+
+    /** Index 0 is the oldest pose still held. */
+    fun time(i: Int) = times[slot(i)]
+    fun x(i: Int) = xs[slot(i)]
+    fun y(i: Int) = ys[slot(i)]
+    fun heading(i: Int) = headings[slot(i)]
+
+    fun set(i: Int, x: Double, y: Double, heading: Double) {
+        val slot = slot(i)
+        xs[slot] = x
+        ys[slot] = y
+        headings[slot] = heading
+    }
+
+    /**
+     * Index of the newest pose at or before [timeNanos], or -1 if the history doesn't reach back
+     * that far.
+     */
+    fun floorIndex(timeNanos: Long): Int {
+        if (size == 0 || timeNanos < time(0)) return -1
+        var low = 0
+        var high = size - 1
+        while (low < high) {
+            val mid = (low + high + 1) ushr 1
+            if (time(mid) <= timeNanos) low = mid else high = mid - 1
+        }
+        return low
+    }
+
+    private fun slot(i: Int) = (head - size + i + capacity) % capacity
+}
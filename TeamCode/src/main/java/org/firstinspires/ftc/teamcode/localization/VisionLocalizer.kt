@@ -0,0 +1,62 @@
+package org.firstinspires.ftc.teamcode.localization
+
+import com.pedropathing.follower.Follower
+import com.pedropathing.geometry.Pose
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.LocalizationConstants
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.subsystems.LimelightSubsystem
+
+/**
+ * Feeds Limelight MegaTag2 poses back into the Pedro [Follower] through [PoseFusion]. Register it
+ * after whatever updates the follower so the recorded pose belongs to this cycle's bulk read.
+ *
+ * MegaTag2's heading is just the odometry heading sent through [LimelightSubsystem.setRobotHeading],
+ * so only its translation is fused. Heading is corrected only from the MegaTag1 pose, which solves
+ * it from the tags.
+ */
+class VisionLocalizer(
+    private val hardware: HardwareCache,
+    private val follower: Follower,
+    private val limelight: LimelightSubsystem
+) : Subsystem {
+    private val fusion = PoseFusion()
+    private var lastSequence = 0L
+
+    val accepted: Int
+        get() = fusion.accepted
+
+    val rejected: Int
+        get() = fusion.rejected
+
+    override fun periodic() {
+        val pose = follower.pose
+        fusion.record(hardware.timestampNanos, pose.x, pose.y, pose.heading)
+        limelight.setRobotHeading(pose.heading + Math.PI / 2)
+
+        val vision = limelight.vision
+        if (vision.sequence == lastSequence) return
+        lastSequence = vision.sequence
+
+        if (!vision.hasBotposeMt2
+            || vision.fiducialCount < LocalizationConstants.minVisionTags
+            || vision.latencyMs > LocalizationConstants.maxVisionLatencyMs) return
+
+        fusion.gain = LocalizationConstants.visionGain
+        fusion.maxTranslationError = LocalizationConstants.maxVisionError
+
+        // Limelight reports the FTC field frame (origin at the centre); Pedro's origin is a corner
+        // with the axes rotated a quarter turn.
+        val corrected = fusion.correct(
+            vision.captureNanos,
+            vision.botposeMt2Y + 72,
+            -vision.botposeMt2X + 72,
+            if (vision.hasBotpose) PoseFusion.wrap(vision.botposeHeading - Math.PI / 2) else Double.NaN
+        )
+        if (corrected) follower.setPose(Pose(fusion.x, fusion.y, fusion.heading))
+    }
+
+    fun reset() {
+        fusion.reset()
+    }
+}
@@ -0,0 +1,44 @@
+package org.firstinspires.ftc.teamcode.logging
+
+import java.io.File
+import java.io.IOException
+import java.io.RandomAccessFile
+import java.nio.ByteOrder
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+
+/** Reads a file written by [MatchLogger], one record at a time into a caller-owned [MatchRecord]. */
+class MatchLogReader(file: File) : AutoCloseable {
+    private val access = RandomAccessFile(file, "r")
+    private val buffer: MappedByteBuffer =
+        access.channel.map(FileChannel.MapMode.READ_ONLY, 0, access.length())
+
+    /** Number of complete records in the file, including any zeroed tail left by a crash. */
+    val size: Int
+
+    init {
+        buffer.order(ByteOrder.LITTLE_ENDIAN)
+        if (buffer.limit() < MatchLogger.HEADER_SIZE || buffer.getLong(0) != MatchLogger.MAGIC) {
+            access.close()
+            throw IOException("${file.name} is not a match log")
+        }
+        val version = buffer.getInt(8)
+        val recordSize = buffer.getInt(12)
+        if (version != MatchRecord.VERSION || recordSize != MatchRecord.SIZE) {
+            access.close()
+            throw IOException("${file.name} is log version $version, expected ${MatchRecord.VERSION}")
+        }
+        size = ((buffer.limit() - MatchLogger.HEADER_SIZE) / MatchRecord.SIZE)
+    }
+
+    /** Reads record [index] into [into]. Returns false past the end of the log. */
+    fun read(index: Int, into: MatchRecord): Boolean {
+        if (index < 0 || index >= size) return false
+        into.read(buffer, MatchLogger.HEADER_SIZE + index * MatchRecord.SIZE)
+        return into.sequence != 0L
+    }
+
+    override fun close() {
+        access.close()
+    }
+}
@@ -0,0 +1,148 @@
+package org.firstinspires.ftc.teamcode.logging
+
+import java.io.File
+import java.io.RandomAccessFile
+import java.nio.ByteBuffer
+import java.nio.ByteOrder
+import java.nio.MappedByteBuffer
+import java.nio.channels.FileChannel
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.locks.LockSupport
+
+/**
+ * Append-only binary log of [MatchRecord]s. [append] copies the record into a preallocated ring
+ * and returns; a background thread moves records from the ring into a memory-mapped window on
+ * [file], mapping the next [chunkBytes] whenever the current window fills. The control thread
+ * never touches the file and never allocates. If the writer falls a whole ring behind, records
+ * are dropped and counted rather than blocking the loop.
+ *
+ * The file starts with a [HEADER_SIZE] byte header (magic, version, record size) followed by
+ * records back to back. [close] trims the file to the records written; a log cut short by a
+ * crash ends at the first record with a zero sequence number.
+ */
+class MatchLogger @JvmOverloads constructor(
+    val file: File,
+    val capacity: Int = 1024,
+    private val chunkBytes: Long = 4L shl 20,
+    private val drainPeriodMs: Long = 20
+) {
+    private val ring = ByteBuffer.allocate(capacity * MatchRecord.SIZE).order(ByteOrder.LITTLE_ENDIAN)
+    private val written = AtomicLong()
+    private val drained = AtomicLong()
+    private var appended = 0L
+
+    private val channel: FileChannel
+    private var window: MappedByteBuffer
+    private var windowOffset = 0L
+
+    @Volatile
+    private var running = true
+    private val thread = Thread(::drain, "match-logger")
+
+    var dropped = 0L
+        private set
+
+    val recordsWritten: Long
+        get() = drained.get()
+
+    init {
+        file.parentFile?.mkdirs()
+        channel = RandomAccessFile(file, "rw").channel
+        channel.truncate(0)
+        window = map(0)
+        window.putLong(MAGIC)
+        window.putInt(MatchRecord.VERSION)
+        window.putInt(MatchRecord.SIZE)
+
+        thread.isDaemon = true
+        thread.priority = Thread.MIN_PRIORITY
+        thread.start()
+    }
+
+    /** Queues [record] for the file, stamping its sequence number. Returns false if it was dropped. */
+    fun append(record: MatchRecord): Boolean {
+        if (!running) return false
+        if (appended - drained.get() >= capacity) {
+            dropped++
+            return false
+        }
+
+        record.sequence = appended + 1
+        record.write(ring, (appended % capacity).toInt() * MatchRecord.SIZE)
+        appended++
+        written.lazySet(appended)
+        return true
+    }
+
+    /** Stops the writer after it has drained the ring, then trims and closes the file. */
+    fun close() {
+        if (!running) return
+        running = false
+        LockSupport.unpark(thread)
+        thread.join()
+
+        window.force()
+        channel.truncate(HEADER_SIZE + drained.get() * MatchRecord.SIZE)
+        channel.close()
+    }
+
+    private fun drain() {
+        val view = ring.duplicate()
+        while (true) {
+            val stopping = !running
+            val available = written.get()
+            var next = drained.get()
+
+            while (next < available) {
+                val slot = (next % capacity).toInt()
+                val count = Math.min(available - next, (capacity - slot).toLong()).toInt()
+                copy(view, slot, count)
+                next += count
+                drained.set(next)
+            }
+
+            if (stopping) return
+            LockSupport.parkNanos(drainPeriodMs * 1_000_000)
+        }
+    }
+
+    private fun copy(view: ByteBuffer, slot: Int, count: Int) {
+        var remaining = count
+        var start = slot * MatchRecord.SIZE
+        while (remaining > 0) {
+            if (window.remaining() < MatchRecord.SIZE) {
+                windowOffset += window.position()
+                window = map(windowOffset)
+            }
+            val fits = Math.min(remaining, window.remaining() / MatchRecord.SIZE)
+            val end = start + fits * MatchRecord.SIZE
+            view.clear()
+            view.position(start)
+            view.limit(end)
+            window.put(view)
+            start = end
+            remaining -= fits
+        }
+    }
+
+    private fun map(offset: Long): MappedByteBuffer =
+        channel.map(FileChannel.MapMode.READ_WRITE, offset, chunkBytes).also { it.order(ByteOrder.LITTLE_ENDIAN) }
+
+    companion object {
+        const val MAGIC = 0x31474F4C58455041L // "APEXLOG1"
+        const val HEADER_SIZE = 16
+
+        /** Deletes all but the newest [keep] logs in [directory]. Returns how many were deleted. */
+        @JvmStatic
+        fun prune(directory: File, keep: Int): Int {
+            val logs = directory.listFiles { file -> file.isFile && file.name.endsWith(".bin") } ?: return 0
+            if (logs.size <= keep) return 0
+            logs.sortByDescending { it.lastModified() }
+            var deleted = 0
+            for (i in Math.max(0, keep) until logs.size) {
+                if (logs[i].delete()) deleted++
+            }
+            return deleted
+        }
+    }
+}
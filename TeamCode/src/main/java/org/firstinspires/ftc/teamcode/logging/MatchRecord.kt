@@ -0,0 +1,147 @@
+package org.firstinspires.ftc.teamcode.logging
+
+import java.nio.ByteBuffer
+
+/**
+ * One control cycle in the match log. The binary layout is fixed at [SIZE] bytes, written and
+ * read field by field in declaration order, so a record can be copied in and out of a
+ * ByteBuffer without allocating. Bump [VERSION] whenever a field is added, removed or moved.
+ *
+ * Pose and velocity are in Pedro's frame, vision poses in the FTC frame as the Limelight reports
+ * them. Values that weren't available that cycle are NaN.
+ */
+class MatchRecord {
+    @JvmField var sequence = 0L
+    @JvmField var timeNanos = 0L
+    @JvmField var cycle = 0L
+
+    @JvmField var x = Double.NaN
+    @JvmField var y = Double.NaN
+    @JvmField var heading = Double.NaN
+    @JvmField var velocityX = Double.NaN
+    @JvmField var velocityY = Double.NaN
+    @JvmField var angularVelocity = Double.NaN
+
+    /** Raw odometry pod counts, as read from the encoder ports. */
+    @JvmField var leftTicks = 0
+    @JvmField var rightTicks = 0
+    @JvmField var strafeTicks = 0
+
+    @JvmField var leftFrontPower = Double.NaN
+    @JvmField var rightFrontPower = Double.NaN
+    @JvmField var leftRearPower = Double.NaN
+    @JvmField var rightRearPower = Double.NaN
+
+    @JvmField var intakePower = Double.NaN
+    @JvmField var flywheelVelocity = Double.NaN
+    @JvmField var flywheelTarget = Double.NaN
+    @JvmField var flywheelPower = Double.NaN
+    @JvmField var voltage = Double.NaN
+
+    @JvmField var spindexerPosition = Double.NaN
+    @JvmField var transferPosition = Double.NaN
+
+    @JvmField var visionSequence = 0L
+    @JvmField var visionTags = 0
+    @JvmField var visionValid = false
+    @JvmField var visionX = Double.NaN
+    @JvmField var visionY = Double.NaN
+    @JvmField var visionHeading = Double.NaN
+    @JvmField var visionLatencyMs = Double.NaN
+
+    @JvmField var loopMs = Double.NaN
+    @JvmField var workMs = Double.NaN
+
+    fun write(buffer: ByteBuffer, offset: Int) {
+        var o = offset
+        buffer.putLong(o, sequence); o += 8
+        buffer.putLong(o, timeNanos); o += 8
+        buffer.putLong(o, cycle); o += 8
+
+        buffer.putDouble(o, x); o += 8
+        buffer.putDouble(o, y); o += 8
+        buffer.putDouble(o, heading); o += 8
+        buffer.putDouble(o, velocityX); o += 8
+        buffer.putDouble(o, velocityY); o += 8
+        buffer.putDouble(o, angularVelocity); o += 8
+
+        buffer.putInt(o, leftTicks); o += 4
+        buffer.putInt(o, rightTicks); o += 4
+        buffer.putInt(o, strafeTicks); o += 4
+
+        buffer.putDouble(o, leftFrontPower); o += 8
+        buffer.putDouble(o, rightFrontPower); o += 8
+        buffer.putDouble(o, leftRearPower); o += 8
+        buffer.putDouble(o, rightRearPower); o += 8
+
+        buffer.putDouble(o, intakePower); o += 8
+        buffer.putDouble(o, flywheelVelocity); o += 8
+        buffer.putDouble(o, flywheelTarget); o += 8
+        buffer.putDouble(o, flywheelPower); o += 8
+        buffer.putDouble(o, voltage); o += 8
+
+        buffer.putDouble(o, spindexerPosition); o += 8
+        buffer.putDouble(o, transferPosition); o += 8
+
+        buffer.putLong(o, visionSequence); o += 8
+        buffer.putInt(o, visionTags); o += 4
+        buffer.putInt(o, if (visionValid) 1 else 0); o += 4
+        buffer.putDouble(o, visionX); o += 8
+        buffer.putDouble(o, visionY); o += 8
+        buffer.putDouble(o, visionHeading); o += 8
+        buffer.putDouble(o, visionLatencyMs); o += 8
+
+        buffer.putDouble(o, loopMs); o += 8
+        buffer.putDouble(o, workMs)
+    }
+
+    fun read(buffer: ByteBuffer, offset: Int) {
+        var o = offset
+        sequence = buffer.getLong(o); o += 8
+        timeNanos = buffer.getLong(o); o += 8
+        cycle = buffer.getLong(o); o += 8
+
+        x = buffer.getDouble(o); o += 8
+        y = buffer.getDouble(o); o += 8
+        heading = buffer.getDouble(o); o += 8
+        velocityX = buffer.getDouble(o); o += 8
+        velocityY = buffer.getDouble(o); o += 8
+        angularVelocity = buffer.getDouble(o); o += 8
+
+        leftTicks = buffer.getInt(o); o += 4
+        rightTicks = buffer.getInt(o); o += 4
+        strafeTicks = buffer.getInt(o); o += 4
+
+        leftFrontPower = buffer.getDouble(o); o += 8
+        rightFrontPower = buffer.getDouble(o); o += 8
+        leftRearPower = buffer.getDouble(o); o += 8
+        rightRearPower = buffer.getDouble(o); o += 8
+
+        intakePower = buffer.getDouble(o); o += 8
+        flywheelVelocity = buffer.getDouble(o); o += 8
+        flywheelTarget = buffer.getDouble(o); o += 8
+        flywheelPower = buffer.getDouble(o); o += 8
+        voltage = buffer.getDouble(o); o += 8
+
+        spindexerPosition = buffer.getDouble(o); o += 8
+        transferPosition = buffer.getDouble(o); o += 8
+
+        visionSequence = buffer.getLong(o); o += 8
+        visionTags = buffer.getInt(o); o += 4
+        visionValid = buffer.getInt(o) != 0; o += 4
+        visionX = buffer.getDouble(o); o += 8
+        visionY = buffer.getDouble(o); o += 8
+        visionHeading = buffer.getDouble(o); o += 8
+        visionLatencyMs = buffer.getDouble(o); o += 8
+
+        loopMs = buffer.getDouble(o); o += 8
+        workMs = buffer.getDouble(o)
+    }
+
+    companion object {
+        const val VERSION = 1
+
+        /** 4 longs, 5 ints and 23 doubles. */
+        const val SIZE = 4 * 8 + 5 * 4 + 23 * 8
+    }
+}
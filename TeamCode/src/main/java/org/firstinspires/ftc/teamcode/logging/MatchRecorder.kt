@@ -0,0 +1,100 @@
+package org.firstinspires.ftc.teamcode.logging
+
+import com.pedropathing.follower.Follower
+import org.firstinspires.ftc.teamcode.command.Scheduler
+import org.firstinspires.ftc.teamcode.hardware.CachedMotor
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants
+import org.firstinspires.ftc.teamcode.subsystems.IntakeSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.LimelightSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.OuttakeSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.SpindexerSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.TransferSubsystem
+
+/**
+ * Fills one [MatchRecord] per cycle from state that's already in memory (the follower, the bulk
+ * read snapshot and the cached outputs) and hands it to the [logger]. Add it to the [Scheduler]
+ * as a periodic so it runs after everything else in the cycle. Mechanisms that aren't set are
+ * logged as NaN.
+ */
+class MatchRecorder(
+    private val hardware: HardwareCache,
+    private val follower: Follower,
+    private val logger: MatchLogger,
+    private val scheduler: Scheduler? = null
+) : Runnable {
+    private val record = MatchRecord()
+
+    private val leftEncoder = hardware.motorInput(Constants.localizerConstants.leftEncoder_HardwareMapName)
+    private val rightEncoder = hardware.motorInput(Constants.localizerConstants.rightEncoder_HardwareMapName)
+    private val strafeEncoder = hardware.motorInput(Constants.localizerConstants.strafeEncoder_HardwareMapName)
+
+    var intake: IntakeSubsystem? = null
+    var outtake: OuttakeSubsystem? = null
+    var spindexer: SpindexerSubsystem? = null
+    var transfer: TransferSubsystem? = null
+    var limelight: LimelightSubsystem? = null
+
+    /** Drive outputs in left front, right front, left rear, right rear order. */
+    var drive: Array<CachedMotor>? = null
+
+    override fun run() {
+        record.timeNanos = hardware.timestampNanos
+        record.cycle = hardware.cycle
+
+        val pose = follower.pose
+        record.x = pose.x
+        record.y = pose.y
+        record.heading = pose.heading
+        val velocity = follower.poseTracker.localizer.velocity
+        record.velocityX = velocity.x
+        record.velocityY = velocity.y
+        record.angularVelocity = velocity.heading
+
+        record.leftTicks = leftEncoder.position
+        record.rightTicks = rightEncoder.position
+        record.strafeTicks = strafeEncoder.position
+
+        val drive = drive
+        record.leftFrontPower = drive?.get(0)?.power ?: Double.NaN
+        record.rightFrontPower = drive?.get(1)?.power ?: Double.NaN
+        record.leftRearPower = drive?.get(2)?.power ?: Double.NaN
+        record.rightRearPower = drive?.get(3)?.power ?: Double.NaN
+
+        record.intakePower = intake?.power ?: Double.NaN
+        val outtake = outtake
+        record.flywheelVelocity = outtake?.velocity ?: Double.NaN
+        record.flywheelTarget = outtake?.targetVelocity ?: Double.NaN
+        record.flywheelPower = outtake?.power ?: Double.NaN
+        record.voltage = hardware.voltage.voltage
+
+        record.spindexerPosition = spindexer?.position ?: Double.NaN
+        record.transferPosition = transfer?.position ?: Double.NaN
+
+        val vision = limelight?.vision
+        if (vision != null) {
+            record.visionSequence = vision.sequence
+            record.visionTags = vision.fiducialCount
+            record.visionValid = vision.valid
+            record.visionLatencyMs = vision.latencyMs
+            if (vision.hasBotposeMt2) {
+                record.visionX = vision.botposeMt2X
+                record.visionY = vision.botposeMt2Y
+                record.visionHeading = vision.botposeMt2Heading
+            } else if (vision.hasBotpose) {
+                record.visionX = vision.botposeX
+                record.visionY = vision.botposeY
+                record.visionHeading = vision.botposeHeading
+            } else {
+                record.visionX = Double.NaN
+                record.visionY = Double.NaN
+                record.visionHeading = Double.NaN
+            }
+        }
+
+        record.loopMs = scheduler?.lastPeriodMs ?: Double.NaN
+        record.workMs = scheduler?.lastWorkMs ?: Double.NaN
+
+        logger.append(record)
+    }
+}
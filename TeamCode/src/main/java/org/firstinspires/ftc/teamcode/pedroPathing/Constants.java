@@ -10,6 +10,11 @@ import com.pedropathing.paths.PathConstraints;
 import com.qualcomm.robotcore.hardware.DcMotorSimple;
 import com.qualcomm.robotcore.hardware.HardwareMap;
 
+import org.firstinspires.ftc.teamcode.constants.TuningStore;
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache;
+
+import java.io.File;
+
 public class Constants {
     public static FollowerConstants followerConstants = new FollowerConstants()
             .mass(9.5453483523935) // in kg
@@ -42,11 +47,41 @@ public class Constants {
 
     public static PathConstraints pathConstraints = new PathConstraints(0.99, 100, 1, 1);
 
+    /** Values accepted on the Tuning OpModes. Anything stored here overrides the constants above. */
+    public static TuningStore tuning = new TuningStore(new File("/sdcard/FIRST/apex/tuning.bin"));
+
     public static Follower createFollower(HardwareMap hardwareMap) {
+        applyTuning();
         return new FollowerBuilder(followerConstants, hardwareMap)
                 .pathConstraints(pathConstraints)
                 .mecanumDrivetrain(driveConstants)
                 .threeWheelLocalizer(localizerConstants)
                 .build();
     }
+
+    /**
+     * Builds the Follower on top of a HardwareCache. The hubs are already in MANUAL bulk caching,
+     * so the localizer's encoder reads come out of the snapshot taken by HardwareCache.update().
+     */
+    public static Follower createFollower(HardwareCache hardware) {
+        return createFollower(hardware.getHardwareMap());
+    }
+
+    private static void applyTuning() {
+        if (!tuning.load()) {
+            return;
+        }
+        if (tuning.has(TuningStore.Key.X_VELOCITY)) {
+            followerConstants.xVelocity(tuning.get(TuningStore.Key.X_VELOCITY));
+        }
+        if (tuning.has(TuningStore.Key.Y_VELOCITY)) {
+            followerConstants.yVelocity(tuning.get(TuningStore.Key.Y_VELOCITY));
+        }
+        if (tuning.has(TuningStore.Key.FORWARD_ZERO_POWER_ACCELERATION)) {
+            followerConstants.forwardZeroPowerAcceleration(tuning.get(TuningStore.Key.FORWARD_ZERO_POWER_ACCELERATION));
+        }
+        if (tuning.has(TuningStore.Key.LATERAL_ZERO_POWER_ACCELERATION)) {
+            followerConstants.lateralZeroPowerAcceleration(tuning.get(TuningStore.Key.LATERAL_ZERO_POWER_ACCELERATION));
+        }
+    }
 }
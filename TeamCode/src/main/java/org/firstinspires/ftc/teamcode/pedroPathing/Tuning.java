@@ -19,9 +19,27 @@ import com.pedropathing.paths.PathChain;
 import com.pedropathing.telemetry.SelectableOpMode;
 import com.pedropathing.util.PoseHistory;
 import com.qualcomm.robotcore.eventloop.opmode.OpMode;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerImpl;
+import com.qualcomm.robotcore.eventloop.opmode.OpModeManagerNotifier;
 import com.qualcomm.robotcore.eventloop.opmode.TeleOp;
-
-import java.util.ArrayList;
+import com.qualcomm.robotcore.util.RobotLog;
+
+import org.firstinspires.ftc.robotcore.internal.system.AppUtil;
+import org.firstinspires.ftc.teamcode.command.Scheduler;
+import org.firstinspires.ftc.teamcode.constants.LoggingConstants;
+import org.firstinspires.ftc.teamcode.constants.TuningStore;
+import org.firstinspires.ftc.teamcode.constants.VoltageConstants;
+import org.firstinspires.ftc.teamcode.control.DriveCharacterization;
+import org.firstinspires.ftc.teamcode.logging.MatchLogger;
+import org.firstinspires.ftc.teamcode.logging.MatchRecorder;
+import org.firstinspires.ftc.teamcode.profiling.LoopProfiler;
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache;
+import org.firstinspires.ftc.teamcode.telemetry.TelemetryService;
+import org.firstinspires.ftc.teamcode.util.DoubleRingBuffer;
+import org.firstinspires.ftc.teamcode.util.Polyline;
+
+import java.io.File;
+import java.io.IOException;
 import java.util.List;
 
 import static org.firstinspires.ftc.teamcode.pedroPathing.Tuning.*;
@@ -37,14 +55,35 @@ import static org.firstinspires.ftc.teamcode.pedroPathing.Tuning.*;
 public class Tuning extends SelectableOpMode {
     public static Follower follower;
 
+    /** Field drawing runs once every this many loops so it can't stretch the control cycle. */
+    public static int DRAW_DIVISOR = 4;
+
+    /** Live tuner values are sent to the Driver Station and Panels at most this often. */
+    public static double TELEMETRY_RATE_HZ = 10;
+
+    /** Most samples the zero power acceleration tuners keep; older ones fall out of the window. */
+    public static int MAX_SAMPLES = 2000;
+
     @IgnoreConfigurable
-    static PoseHistory poseHistory;
+    static HardwareCache hardware;
 
     @IgnoreConfigurable
-    static TelemetryManager telemetryM;
+    static Scheduler scheduler;
+
+    @IgnoreConfigurable
+    static LoopProfiler profiler;
+
+    @IgnoreConfigurable
+    static int telemetryScope;
+
+    @IgnoreConfigurable
+    static MatchLogger logger;
+
+    @IgnoreConfigurable
+    static PoseHistory poseHistory;
 
     @IgnoreConfigurable
-    static ArrayList<String> changes = new ArrayList<>();
+    static TelemetryManager telemetryM;
 
     public Tuning() {
         super("Select a Tuning OpMode", s -> {
@@ -59,6 +98,7 @@ public class Tuning extends SelectableOpMode {
                 a.add("Lateral Velocity Tuner", LateralVelocityTuner::new);
                 a.add("Forward Zero Power Acceleration Tuner", ForwardZeroPowerAccelerationTuner::new);
                 a.add("Lateral Zero Power Acceleration Tuner", LateralZeroPowerAccelerationTuner::new);
+                a.add("Drive Characterization", DriveCharacterizationTuner::new);
             });
             s.folder("Manual", p -> {
                 p.add("Translational Tuner", TranslationalTuner::new);
@@ -77,11 +117,13 @@ public class Tuning extends SelectableOpMode {
 
     @Override
     public void onSelect() {
+        hardware = new HardwareCache(hardwareMap);
+
         if (follower == null) {
-            follower = Constants.createFollower(hardwareMap);
+            follower = Constants.createFollower(hardware);
             PanelsConfigurables.INSTANCE.refreshClass(this);
         } else {
-            follower = Constants.createFollower(hardwareMap);
+            follower = Constants.createFollower(hardware);
         }
 
         follower.setStartingPose(new Pose());
@@ -91,12 +133,76 @@ public class Tuning extends SelectableOpMode {
         telemetryM = PanelsTelemetry.INSTANCE.getTelemetry();
 
         Drawing.init();
+
+        profiler = new LoopProfiler(hardware);
+        telemetryScope = profiler.scope("telemetry");
+
+        scheduler = new Scheduler(hardware, 0);
+        scheduler.addPeriodic(1, () -> follower.update(), "follower");
+        scheduler.addPeriodic(DRAW_DIVISOR, Tuning::draw, "drawing");
+        scheduler.addPeriodic(1, () -> profiler.publish(telemetryM), "profiler");
+        scheduler.setProfiler(profiler);
+
+        closeLogger();
+        if (LoggingConstants.enabled) {
+            File directory = new File(LoggingConstants.directory);
+            MatchLogger.prune(directory, LoggingConstants.keepFiles - 1);
+            File file = new File(directory, "tuning-" + System.currentTimeMillis() + ".bin");
+            logger = new MatchLogger(file, LoggingConstants.ringCapacity);
+            scheduler.addPeriodic(1, new MatchRecorder(hardware, follower, logger, scheduler), "logger");
+            closeLoggerOnStop();
+        }
+    }
+
+    static void closeLogger() {
+        if (logger != null) {
+            logger.close();
+            logger = null;
+        }
+    }
+
+    /**
+     * Closes the logger when this OpMode stops, so its drain thread and file mapping don't outlive
+     * the run. SelectableOpMode keeps stop() to itself, so this listens for it instead.
+     */
+    private static void closeLoggerOnStop() {
+        OpModeManagerImpl manager = OpModeManagerImpl.getOpModeManagerOfActivity(AppUtil.getInstance().getActivity());
+        if (manager == null) {
+            return;
+        }
+        manager.registerListener(new OpModeManagerNotifier.Notifications() {
+            @Override
+            public void onOpModePreInit(OpMode opMode) {}
+
+            @Override
+            public void onOpModePreStart(OpMode opMode) {}
+
+            @Override
+            public void onOpModePostStop(OpMode opMode) {
+                manager.unregisterListener(this);
+                closeLogger();
+            }
+        });
     }
 
     @Override
     public void onLog(List<String> lines) {}
 
+    /**
+     * This takes the cycle's bulk-read snapshot and then updates the Follower from it. Since the
+     * hubs are in MANUAL caching, skipping the HardwareCache update would leave the localizer
+     * reading stale encoder values.
+     */
+    public static void updateFollower() {
+        hardware.update();
+        follower.update();
+    }
+
     public static void drawOnlyCurrent() {
+        if (!Drawing.readyToSend()) {
+            return;
+        }
+
         try {
             Drawing.drawRobot(follower.getPose());
             Drawing.sendPacket();
@@ -109,6 +215,19 @@ public class Tuning extends SelectableOpMode {
         Drawing.drawDebug(follower);
     }
 
+    /**
+     * Saves a value a tuner accepted to the hub, so the next Follower built by Constants starts
+     * with it. If the save fails the value still applies until the robot restarts.
+     */
+    static void accept(TuningStore.Key key, double value) {
+        Constants.tuning.set(key, value);
+        try {
+            Constants.tuning.save();
+        } catch (IOException e) {
+            RobotLog.ee("Tuning", e, "Couldn't save " + key + " to " + Constants.tuning.getFile());
+        }
+    }
+
     /** This creates a full stop of the robot by setting the drive motors to run at 0 power. */
     public static void stopRobot() {
         follower.startTeleopDrive(true);
@@ -126,6 +245,9 @@ public class Tuning extends SelectableOpMode {
  * @version 1.0, 5/6/2024
  */
 class LocalizationTest extends OpMode {
+    private TelemetryService display;
+    private TelemetryService.Entry x, y, heading, totalHeading;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72,72));
@@ -137,14 +259,20 @@ class LocalizationTest extends OpMode {
         telemetryM.debug("This will print your robot's position to telemetry while "
                 + "allowing robot control through a basic mecanum drive on gamepad 1.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
     @Override
     public void start() {
         follower.startTeleopDrive();
-        follower.update();
+        updateFollower();
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        x = display.entry("x");
+        y = display.entry("y");
+        heading = display.entry("heading");
+        totalHeading = display.entry("total heading");
     }
 
     /**
@@ -154,15 +282,16 @@ class LocalizationTest extends OpMode {
     @Override
     public void loop() {
         follower.setTeleOpDrive(-gamepad1.left_stick_y, -gamepad1.left_stick_x, -gamepad1.right_stick_x, true);
-        follower.update();
-
-        telemetryM.debug("x:" + follower.getPose().getX());
-        telemetryM.debug("y:" + follower.getPose().getY());
-        telemetryM.debug("heading:" + follower.getPose().getHeading());
-        telemetryM.debug("total heading:" + follower.getTotalHeading());
-        telemetryM.update(telemetry);
+        scheduler.run();
 
-        draw();
+        Pose pose = follower.getPose();
+        x.set(pose.getX());
+        y.set(pose.getY());
+        heading.set(pose.getHeading());
+        totalHeading.set(follower.getTotalHeading());
+        long mark = profiler.start();
+        display.update();
+        profiler.stop(telemetryScope, mark);
     }
 }
 
@@ -182,10 +311,13 @@ class LocalizationTest extends OpMode {
 class ForwardTuner extends OpMode {
     public static double DISTANCE = 48;
 
+    private TelemetryService display;
+    private TelemetryService.Entry distanceMoved, multiplier;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72,72));
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -197,20 +329,28 @@ class ForwardTuner extends OpMode {
         drawOnlyCurrent();
     }
 
+    @Override
+    public void start() {
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        distanceMoved = display.entry("Distance Moved");
+        display.line("The multiplier will display what your forward ticks to inches should be to scale your current distance to " + DISTANCE + " inches.");
+        multiplier = display.entry("Multiplier", 8);
+    }
+
     /**
      * This updates the robot's pose estimate, and updates the Panels telemetry with the
      * calculated multiplier and draws the robot.
      */
     @Override
     public void loop() {
-        follower.update();
+        scheduler.run();
 
-        telemetryM.debug("Distance Moved: " + (follower.getPose().getX() - 72));
-        telemetryM.debug("The multiplier will display what your forward ticks to inches should be to scale your current distance to " + DISTANCE + " inches.");
-        telemetryM.debug("Multiplier: " + (DISTANCE / ((follower.getPose().getX() - 72) / follower.getPoseTracker().getLocalizer().getForwardMultiplier())));
-        telemetryM.update(telemetry);
-
-        draw();
+        double moved = follower.getPose().getX() - 72;
+        distanceMoved.set(moved);
+        multiplier.set(DISTANCE / (moved / follower.getPoseTracker().getLocalizer().getForwardMultiplier()));
+        long mark = profiler.start();
+        display.update();
+        profiler.stop(telemetryScope, mark);
     }
 }
 
@@ -230,10 +370,13 @@ class ForwardTuner extends OpMode {
 class LateralTuner extends OpMode {
     public static double DISTANCE = 48;
 
+    private TelemetryService display;
+    private TelemetryService.Entry distanceMoved, multiplier;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72,72));
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -245,20 +388,28 @@ class LateralTuner extends OpMode {
         drawOnlyCurrent();
     }
 
+    @Override
+    public void start() {
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        distanceMoved = display.entry("Distance Moved");
+        display.line("The multiplier will display what your strafe ticks to inches should be to scale your current distance to " + DISTANCE + " inches.");
+        multiplier = display.entry("Multiplier", 8);
+    }
+
     /**
      * This updates the robot's pose estimate, and updates the Panels telemetry with the
      * calculated multiplier and draws the robot.
      */
     @Override
     public void loop() {
-        follower.update();
-
-        telemetryM.debug("Distance Moved: " + (follower.getPose().getY() - 72));
-        telemetryM.debug("The multiplier will display what your strafe ticks to inches should be to scale your current distance to " + DISTANCE + " inches.");
-        telemetryM.debug("Multiplier: " + (DISTANCE / ((follower.getPose().getY() - 72) / follower.getPoseTracker().getLocalizer().getLateralMultiplier())));
-        telemetryM.update(telemetry);
+        scheduler.run();
 
-        draw();
+        double moved = follower.getPose().getY() - 72;
+        distanceMoved.set(moved);
+        multiplier.set(DISTANCE / (moved / follower.getPoseTracker().getLocalizer().getLateralMultiplier()));
+        long mark = profiler.start();
+        display.update();
+        profiler.stop(telemetryScope, mark);
     }
 }
 
@@ -278,10 +429,13 @@ class LateralTuner extends OpMode {
 class TurnTuner extends OpMode {
     public static double ANGLE = 2 * Math.PI;
 
+    private TelemetryService display;
+    private TelemetryService.Entry totalAngle, multiplier;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72,72));
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -294,20 +448,27 @@ class TurnTuner extends OpMode {
         drawOnlyCurrent();
     }
 
+    @Override
+    public void start() {
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        totalAngle = display.entry("Total Angle");
+        display.line("The multiplier will display what your turn ticks to inches should be to scale your current angle to " + ANGLE + " radians.");
+        multiplier = display.entry("Multiplier", 8);
+    }
+
     /**
      * This updates the robot's pose estimate, and updates the Panels telemetry with the
      * calculated multiplier and draws the robot.
      */
     @Override
     public void loop() {
-        follower.update();
-
-        telemetryM.debug("Total Angle: " + follower.getTotalHeading());
-        telemetryM.debug("The multiplier will display what your turn ticks to inches should be to scale your current angle to " + ANGLE + " radians.");
-        telemetryM.debug("Multiplier: " + (ANGLE / (follower.getTotalHeading() / follower.getPoseTracker().getLocalizer().getTurningMultiplier())));
-        telemetryM.update(telemetry);
+        scheduler.run();
 
-        draw();
+        totalAngle.set(follower.getTotalHeading());
+        multiplier.set(ANGLE / (follower.getTotalHeading() / follower.getPoseTracker().getLocalizer().getTurningMultiplier()));
+        long mark = profiler.start();
+        display.update();
+        profiler.stop(telemetryScope, mark);
     }
 }
 
@@ -327,12 +488,16 @@ class TurnTuner extends OpMode {
  * @version 1.0, 3/13/2024
  */
 class ForwardVelocityTuner extends OpMode {
-    private final ArrayList<Double> velocities = new ArrayList<>();
+    private DoubleRingBuffer velocities;
     public static double DISTANCE = 48;
     public static double RECORD_NUMBER = 10;
 
     private boolean end;
 
+    private TelemetryService display;
+    private TelemetryService.Entry velocityEntry, deviationEntry;
+    private TelemetryService.Entry[] sampleEntries;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72, 72));
@@ -347,19 +512,27 @@ class ForwardVelocityTuner extends OpMode {
         telemetryM.debug("Press B on game pad 1 to stop.");
         telemetryM.debug("pose", follower.getPose());
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
     /** This starts the OpMode by setting the drive motors to run forward at full power. */
     @Override
     public void start() {
-        for (int i = 0; i < RECORD_NUMBER; i++) {
-            velocities.add(0.0);
-        }
+        velocities = new DoubleRingBuffer((int) RECORD_NUMBER);
         follower.startTeleopDrive(true);
-        follower.update();
+        updateFollower();
         end = false;
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        velocityEntry = display.entry("Forward Velocity");
+        deviationEntry = display.entry("Standard Deviation");
+        display.line("\n");
+        display.line("Press A to set the Forward Velocity and save it to the hub.");
+        sampleEntries = new TelemetryService.Entry[velocities.getCapacity()];
+        for (int i = 0; i < sampleEntries.length; i++) {
+            sampleEntries[i] = display.entry(String.valueOf(i));
+        }
     }
 
     /**
@@ -375,8 +548,7 @@ class ForwardVelocityTuner extends OpMode {
             requestOpModeStop();
         }
 
-        follower.update();
-        draw();
+        scheduler.run();
 
 
         if (!end) {
@@ -388,30 +560,24 @@ class ForwardVelocityTuner extends OpMode {
                 //double currentVelocity = Math.abs(follower.getVelocity().getXComponent());
                 double currentVelocity = Math.abs(follower.poseTracker.getLocalizer().getVelocity().getX());
                 velocities.add(currentVelocity);
-                velocities.remove(0);
             }
         } else {
             stopRobot();
-            double average = 0;
-            for (double velocity : velocities) {
-                average += velocity;
-            }
-            average /= velocities.size();
-            telemetryM.debug("Forward Velocity: " + average);
-            telemetryM.debug("\n");
-            telemetryM.debug("Press A to set the Forward Velocity temporarily (while robot remains on).");
+            double average = velocities.mean();
+            velocityEntry.set(average);
+            deviationEntry.set(velocities.standardDeviation());
 
-            for (int i = 0; i < velocities.size(); i++) {
-                telemetry.addData(String.valueOf(i), velocities.get(i));
+            for (int i = 0; i < velocities.getSize(); i++) {
+                sampleEntries[i].set(velocities.get(i));
             }
 
-            telemetryM.update(telemetry);
-            telemetry.update();
+            long mark = profiler.start();
+            display.update();
+            profiler.stop(telemetryScope, mark);
 
             if (gamepad1.aWasPressed()) {
                 follower.setXVelocity(average);
-                String message = "XMovement: " + average;
-                changes.add(message);
+                accept(TuningStore.Key.X_VELOCITY, average);
             }
         }
     }
@@ -433,13 +599,16 @@ class ForwardVelocityTuner extends OpMode {
  * @version 1.0, 3/13/2024
  */
 class LateralVelocityTuner extends OpMode {
-    private final ArrayList<Double> velocities = new ArrayList<>();
+    private DoubleRingBuffer velocities;
 
     public static double DISTANCE = 48;
     public static double RECORD_NUMBER = 10;
 
     private boolean end;
 
+    private TelemetryService display;
+    private TelemetryService.Entry velocityEntry, deviationEntry;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72, 72));
@@ -456,18 +625,22 @@ class LateralVelocityTuner extends OpMode {
         telemetryM.debug("After running the distance, the robot will cut power from the drivetrain and display the strafe velocity.");
         telemetryM.debug("Press B on Gamepad 1 to stop.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
     /** This starts the OpMode by setting the drive motors to run left at full power. */
     @Override
     public void start() {
-        for (int i = 0; i < RECORD_NUMBER; i++) {
-            velocities.add(0.0);
-        }
+        velocities = new DoubleRingBuffer((int) RECORD_NUMBER);
         follower.startTeleopDrive(true);
-        follower.update();
+        updateFollower();
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        velocityEntry = display.entry("Strafe Velocity");
+        deviationEntry = display.entry("Standard Deviation");
+        display.line("\n");
+        display.line("Press A to set the Lateral Velocity and save it to the hub.");
     }
 
     /**
@@ -483,8 +656,7 @@ class LateralVelocityTuner extends OpMode {
             requestOpModeStop();
         }
 
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (!end) {
             if (Math.abs(follower.getPose().getY()) > (DISTANCE + 72)) {
@@ -494,25 +666,20 @@ class LateralVelocityTuner extends OpMode {
                 follower.setTeleOpDrive(0,1,0,true);
                 double currentVelocity = Math.abs(follower.getVelocity().dot(new Vector(1, Math.PI / 2)));
                 velocities.add(currentVelocity);
-                velocities.remove(0);
             }
         } else {
             stopRobot();
-            double average = 0;
-            for (double velocity : velocities) {
-                average += velocity;
-            }
-            average /= velocities.size();
+            double average = velocities.mean();
 
-            telemetryM.debug("Strafe Velocity: " + average);
-            telemetryM.debug("\n");
-            telemetryM.debug("Press A to set the Lateral Velocity temporarily (while robot remains on).");
-            telemetryM.update(telemetry);
+            velocityEntry.set(average);
+            deviationEntry.set(velocities.standardDeviation());
+            long mark = profiler.start();
+            display.update();
+            profiler.stop(telemetryScope, mark);
 
             if (gamepad1.aWasPressed()) {
                 follower.setYVelocity(average);
-                String message = "YMovement: " + average;
-                changes.add(message);
+                accept(TuningStore.Key.Y_VELOCITY, average);
             }
         }
     }
@@ -534,7 +701,7 @@ class LateralVelocityTuner extends OpMode {
  * @version 1.0, 3/13/2024
  */
 class ForwardZeroPowerAccelerationTuner extends OpMode {
-    private final ArrayList<Double> accelerations = new ArrayList<>();
+    private final DoubleRingBuffer accelerations = new DoubleRingBuffer(MAX_SAMPLES);
     public static double VELOCITY = 30;
 
     private double previousVelocity;
@@ -543,6 +710,9 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
     private boolean stopping;
     private boolean end;
 
+    private TelemetryService display;
+    private TelemetryService.Entry accelerationEntry, deviationEntry;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72, 72));
@@ -557,7 +727,7 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
         telemetryM.debug("After stopping, the forward zero power acceleration (natural deceleration) will be displayed.");
         telemetryM.debug("Press B on Gamepad 1 to stop.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -565,8 +735,14 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
     @Override
     public void start() {
         follower.startTeleopDrive(false);
-        follower.update();
+        updateFollower();
         follower.setTeleOpDrive(1,0,0,true);
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        accelerationEntry = display.entry("Forward Zero Power Acceleration (Deceleration)");
+        deviationEntry = display.entry("Standard Deviation");
+        display.line("\n");
+        display.line("Press A to set the Forward Zero Power Acceleration and save it to the hub.");
     }
 
     /**
@@ -582,8 +758,7 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
             requestOpModeStop();
         }
 
-        follower.update();
-        draw();
+        scheduler.run();
 
         Vector heading = new Vector(1.0, follower.getPose().getHeading());
         if (!end) {
@@ -604,21 +779,17 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
                 }
             }
         } else {
-            double average = 0;
-            for (double acceleration : accelerations) {
-                average += acceleration;
-            }
-            average /= accelerations.size();
+            double average = accelerations.mean();
 
-            telemetryM.debug("Forward Zero Power Acceleration (Deceleration): " + average);
-            telemetryM.debug("\n");
-            telemetryM.debug("Press A to set the Forward Zero Power Acceleration temporarily (while robot remains on).");
-            telemetryM.update(telemetry);
+            accelerationEntry.set(average);
+            deviationEntry.set(accelerations.standardDeviation());
+            long mark = profiler.start();
+            display.update();
+            profiler.stop(telemetryScope, mark);
 
             if (gamepad1.aWasPressed()) {
                 follower.getConstants().setForwardZeroPowerAcceleration(average);
-                String message = "Forward Zero Power Acceleration: " + average;
-                changes.add(message);
+                accept(TuningStore.Key.FORWARD_ZERO_POWER_ACCELERATION, average);
             }
         }
     }
@@ -640,13 +811,16 @@ class ForwardZeroPowerAccelerationTuner extends OpMode {
  * @version 1.0, 3/13/2024
  */
 class LateralZeroPowerAccelerationTuner extends OpMode {
-    private final ArrayList<Double> accelerations = new ArrayList<>();
+    private final DoubleRingBuffer accelerations = new DoubleRingBuffer(MAX_SAMPLES);
     public static double VELOCITY = 30;
     private double previousVelocity;
     private long previousTimeNano;
     private boolean stopping;
     private boolean end;
 
+    private TelemetryService display;
+    private TelemetryService.Entry accelerationEntry, deviationEntry;
+
     @Override
     public void init() {
         follower.setStartingPose(new Pose(72, 72));
@@ -661,7 +835,7 @@ class LateralZeroPowerAccelerationTuner extends OpMode {
         telemetryM.debug("After stopping, the lateral zero power acceleration (natural deceleration) will be displayed.");
         telemetryM.debug("Press B on game pad 1 to stop.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -669,8 +843,14 @@ class LateralZeroPowerAccelerationTuner extends OpMode {
     @Override
     public void start() {
         follower.startTeleopDrive(false);
-        follower.update();
+        updateFollower();
         follower.setTeleOpDrive(0,1,0,true);
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        accelerationEntry = display.entry("Lateral Zero Power Acceleration (Deceleration)");
+        deviationEntry = display.entry("Standard Deviation");
+        display.line("\n");
+        display.line("Press A to set the Lateral Zero Power Acceleration and save it to the hub.");
     }
 
     /**
@@ -686,8 +866,7 @@ class LateralZeroPowerAccelerationTuner extends OpMode {
             requestOpModeStop();
         }
 
-        follower.update();
-        draw();
+        scheduler.run();
 
         Vector heading = new Vector(1.0, follower.getPose().getHeading() - Math.PI / 2);
         if (!end) {
@@ -708,26 +887,264 @@ class LateralZeroPowerAccelerationTuner extends OpMode {
                 }
             }
         } else {
-            double average = 0;
-            for (double acceleration : accelerations) {
-                average += acceleration;
-            }
-            average /= accelerations.size();
+            double average = accelerations.mean();
 
-            telemetryM.debug("Lateral Zero Power Acceleration (Deceleration): " + average);
-            telemetryM.debug("\n");
-            telemetryM.debug("Press A to set the Lateral Zero Power Acceleration temporarily (while robot remains on).");
-            telemetryM.update(telemetry);
+            accelerationEntry.set(average);
+            deviationEntry.set(accelerations.standardDeviation());
+            long mark = profiler.start();
+            display.update();
+            profiler.stop(telemetryScope, mark);
 
             if (gamepad1.aWasPressed()) {
                 follower.getConstants().setLateralZeroPowerAcceleration(average);
-                String message = "Lateral Zero Power Acceleration: " + average;
-                changes.add(message);
+                accept(TuningStore.Key.LATERAL_ZERO_POWER_ACCELERATION, average);
             }
         }
     }
 }
 
+/**
+ * This is the DriveCharacterizationTuner autonomous OpMode. For the forward axis and then the
+ * lateral axis, it ramps the drive power up slowly (quasi-static test), steps back the other way at
+ * a fixed power (step test) and then cuts power and rolls to a stop (coast test). Every sample is
+ * kept in the primitive columns of a DriveCharacterization, and at the end kS, kV and kA are fit
+ * with least squares along with the zero power acceleration. The R² and RMS error of each fit are
+ * shown so a bad run is obvious. Applied volts are the drive power times the filtered battery
+ * voltage from the HardwareCache at each sample, so sag under load doesn't bias the fit. Pressing A
+ * feeds the max velocities the fit predicts at the battery voltage seen during the step tests and
+ * the zero power accelerations into the FollowerConstants.
+ */
+class DriveCharacterizationTuner extends OpMode {
+    public static double RAMP_RATE = 0.2;
+    public static double STEP_POWER = 0.7;
+    public static double DISTANCE = 48;
+    public static double MIN_VELOCITY = 2;
+    public static double SETTLE_SECONDS = 0.75;
+    public static int CAPACITY = 8000;
+
+    private static final int QUASISTATIC = DriveCharacterization.QUASISTATIC;
+    private static final int STEP = DriveCharacterization.STEP;
+    private static final int COAST = DriveCharacterization.COAST;
+    private static final int SETTLE = 3;
+    private static final int DONE = 4;
+    private static final String[] AXES = {"Forward", "Lateral"};
+    private static final String[] PHASES = {"quasi-static", "step", "coast", "settling"};
+
+    private DriveCharacterization[] axes;
+    private int axis;
+    private int phase;
+    private int nextPhase;
+    private double power;
+    private double loadedVolts;
+    private double stepVoltsSum;
+    private int stepVoltsCount;
+    private double startX, startY;
+    private long startNanos, phaseStartNanos;
+    private int shownPhase = -1, shownAxis = -1;
+
+    private TelemetryService display;
+    private TelemetryService.Entry progress;
+
+    @Override
+    public void init() {
+        follower.setStartingPose(new Pose(72, 72));
+    }
+
+    /** This initializes the drive motors as well as the Panels telemetry. */
+    @Override
+    public void init_loop() {
+        telemetryM.debug("For the forward and then the lateral axis, the robot will ramp power up slowly for up to " + DISTANCE + " inches,");
+        telemetryM.debug("drive back at " + STEP_POWER + " power for " + DISTANCE + " inches, then cut power and roll to a stop.");
+        telemetryM.debug("Make sure you have enough room on every side.");
+        telemetryM.debug("After both axes, kS, kV, kA and the zero power accelerations will be displayed with their fit quality.");
+        telemetryM.debug("Press B on game pad 1 to stop.");
+        telemetryM.update(telemetry);
+        updateFollower();
+        drawOnlyCurrent();
+    }
+
+    /** This starts the OpMode with the drive motors floating so the coast test isn't braked. */
+    @Override
+    public void start() {
+        axes = new DriveCharacterization[] {new DriveCharacterization(CAPACITY), new DriveCharacterization(CAPACITY)};
+        follower.startTeleopDrive(false);
+        updateFollower();
+
+        display = new TelemetryService(telemetry, telemetryM, TELEMETRY_RATE_HZ);
+        progress = display.entry("Test");
+
+        startNanos = System.nanoTime();
+        axis = 0;
+        begin(QUASISTATIC, startNanos);
+    }
+
+    /**
+     * This runs the OpMode. At any point during the running of the OpMode, pressing B on
+     * game pad 1 will stop the OpMode. Each loop records one sample for the running test and
+     * moves on to the next test once this one has covered its distance or come to rest.
+     */
+    @Override
+    public void loop() {
+        if (gamepad1.bWasPressed()) {
+            stopRobot();
+            requestOpModeStop();
+        }
+
+        scheduler.run();
+
+        if (phase == DONE) {
+            long mark = profiler.start();
+            display.update();
+            profiler.stop(telemetryScope, mark);
+
+            if (gamepad1.aWasPressed()) {
+                apply();
+            }
+            return;
+        }
+
+        long now = System.nanoTime();
+        double seconds = (now - startNanos) / 1e9;
+        double elapsed = (now - phaseStartNanos) / 1e9;
+
+        Pose pose = follower.getPose();
+        double direction = axis == 0 ? pose.getHeading() : pose.getHeading() + Math.PI / 2;
+        double cos = Math.cos(direction);
+        double sin = Math.sin(direction);
+        Vector v = follower.getVelocity();
+        double velocity = v.getXComponent() * cos + v.getYComponent() * sin;
+        double travelled = Math.abs((pose.getX() - startX) * cos + (pose.getY() - startY) * sin);
+        DriveCharacterization data = axes[axis];
+
+        switch (phase) {
+            case QUASISTATIC:
+                data.add(QUASISTATIC, seconds, power * hardware.getVoltage().getVoltage(), velocity);
+                if (travelled > DISTANCE || power >= 1) {
+                    settle(STEP, now);
+                } else {
+                    drive(Math.min(1, RAMP_RATE * elapsed));
+                }
+                break;
+            case STEP:
+                double volts = hardware.getVoltage().getVoltage();
+                data.add(STEP, seconds, power * volts, velocity);
+                stepVoltsSum += volts;
+                stepVoltsCount++;
+                if (travelled > DISTANCE) {
+                    drive(0);
+                    phase = COAST;
+                } else {
+                    drive(-STEP_POWER);
+                }
+                break;
+            case COAST:
+                data.add(COAST, seconds, 0, velocity);
+                if (Math.abs(velocity) < MIN_VELOCITY) {
+                    if (axis == 0) {
+                        axis = 1;
+                        settle(QUASISTATIC, now);
+                    } else {
+                        finish();
+                    }
+                }
+                break;
+            case SETTLE:
+                drive(0);
+                if (elapsed > SETTLE_SECONDS && Math.abs(velocity) < MIN_VELOCITY) {
+                    begin(nextPhase, now);
+                }
+                break;
+        }
+
+        if (phase != shownPhase || axis != shownAxis) {
+            shownPhase = phase;
+            shownAxis = axis;
+            progress.set(AXES[axis] + " " + PHASES[phase]);
+        }
+        long mark = profiler.start();
+        display.update();
+        profiler.stop(telemetryScope, mark);
+    }
+
+    private void drive(double power) {
+        this.power = power;
+        if (axis == 0) {
+            follower.setTeleOpDrive(power, 0, 0, true);
+        } else {
+            follower.setTeleOpDrive(0, power, 0, true);
+        }
+    }
+
+    private void settle(int next, long now) {
+        drive(0);
+        nextPhase = next;
+        phase = SETTLE;
+        phaseStartNanos = now;
+    }
+
+    /** Starts a test from wherever the robot came to rest. */
+    private void begin(int next, long now) {
+        Pose pose = follower.getPose();
+        startX = pose.getX();
+        startY = pose.getY();
+        phase = next;
+        phaseStartNanos = now;
+    }
+
+    private void finish() {
+        stopRobot();
+        phase = DONE;
+        loadedVolts = stepVoltsCount > 0 ? stepVoltsSum / stepVoltsCount : VoltageConstants.nominalVoltage;
+
+        display.clear();
+        for (int i = 0; i < axes.length; i++) {
+            DriveCharacterization data = axes[i];
+            if (!data.fit(MIN_VELOCITY)) {
+                display.entry(AXES[i]).set("not enough quasi-static data");
+                continue;
+            }
+            display.entry(AXES[i] + " kS (V)").set(data.getFeedforward().getKS());
+            display.entry(AXES[i] + " kV (V per in/s)", 5).set(data.getFeedforward().getKV());
+            display.entry(AXES[i] + " kA (V per in/s²)", 5).set(data.getFeedforward().getKA());
+            display.entry(AXES[i] + " Quasi-static R²").set(data.getQuasiStaticFit().getRSquared());
+            display.entry(AXES[i] + " Quasi-static RMSE (V)").set(data.getQuasiStaticFit().getRmse());
+            display.entry(AXES[i] + " Step R²").set(data.getStepFit().getRSquared());
+            display.entry(AXES[i] + " Zero Power Acceleration").set(data.getZeroPowerAcceleration());
+            display.entry(AXES[i] + " Coast R²").set(data.getCoastFit().getRSquared());
+            display.entry(AXES[i] + " Max Velocity at " + String.format("%.1f", loadedVolts) + " V").set(data.maxVelocity(loadedVolts));
+            display.entry(AXES[i] + " Samples").set(data.getSize());
+        }
+        display.line("\n");
+        display.line("Press A to set the velocities and zero power accelerations and save them to the hub.");
+    }
+
+    private void apply() {
+        DriveCharacterization forward = axes[0];
+        DriveCharacterization lateral = axes[1];
+
+        double xVelocity = forward.maxVelocity(loadedVolts);
+        if (Double.isFinite(xVelocity) && xVelocity > 0) {
+            follower.setXVelocity(xVelocity);
+            accept(TuningStore.Key.X_VELOCITY, xVelocity);
+        }
+        double yVelocity = lateral.maxVelocity(loadedVolts);
+        if (Double.isFinite(yVelocity) && yVelocity > 0) {
+            follower.setYVelocity(yVelocity);
+            accept(TuningStore.Key.Y_VELOCITY, yVelocity);
+        }
+        double forwardDeceleration = forward.getZeroPowerAcceleration();
+        if (Double.isFinite(forwardDeceleration) && forwardDeceleration < 0) {
+            follower.getConstants().setForwardZeroPowerAcceleration(forwardDeceleration);
+            accept(TuningStore.Key.FORWARD_ZERO_POWER_ACCELERATION, forwardDeceleration);
+        }
+        double lateralDeceleration = lateral.getZeroPowerAcceleration();
+        if (Double.isFinite(lateralDeceleration) && lateralDeceleration < 0) {
+            follower.getConstants().setLateralZeroPowerAcceleration(lateralDeceleration);
+            accept(TuningStore.Key.LATERAL_ZERO_POWER_ACCELERATION, lateralDeceleration);
+        }
+    }
+}
+
 /**
  * This is the Translational PIDF Tuner OpMode. It will keep the robot in place.
  * The user should push the robot laterally to test the PIDF and adjust the PIDF values accordingly.
@@ -757,7 +1174,7 @@ class TranslationalTuner extends OpMode {
         telemetryM.debug("The robot will try to stay in place while you push it laterally.");
         telemetryM.debug("You can adjust the PIDF values to tune the robot's translational PIDF(s).");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -775,8 +1192,7 @@ class TranslationalTuner extends OpMode {
     /** This runs the OpMode, updating the Follower as well as printing out the debug statements to the Telemetry */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (!follower.isBusy()) {
             if (forward) {
@@ -829,7 +1245,7 @@ class HeadingTuner extends OpMode {
         telemetryM.debug("The robot will try to stay at a constant heading while you try to turn it.");
         telemetryM.debug("You can adjust the PIDF values to tune the robot's heading PIDF(s).");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -850,8 +1266,7 @@ class HeadingTuner extends OpMode {
      */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (!follower.isBusy()) {
             if (forward) {
@@ -901,7 +1316,7 @@ class DriveTuner extends OpMode {
         telemetryM.debug("The robot will go forward and backward continuously along the path.");
         telemetryM.debug("Make sure you have enough room.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -931,8 +1346,7 @@ class DriveTuner extends OpMode {
      */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (!follower.isBusy()) {
             if (forward) {
@@ -980,7 +1394,7 @@ class Line extends OpMode {
         telemetryM.debug("The robot will go forward and backward continuously along the path while correcting.");
         telemetryM.debug("You can adjust the PIDF values to tune the robot's drive PIDF(s).");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -997,8 +1411,7 @@ class Line extends OpMode {
     /** This runs the OpMode, updating the Follower as well as printing out the debug statements to the Telemetry */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (!follower.isBusy()) {
             if (forward) {
@@ -1050,7 +1463,7 @@ class CentripetalTuner extends OpMode {
         telemetryM.debug("The robot will go continuously along the path.");
         telemetryM.debug("Make sure you have enough room.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -1072,8 +1485,7 @@ class CentripetalTuner extends OpMode {
      */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
         if (!follower.isBusy()) {
             if (forward) {
                 forward = false;
@@ -1111,8 +1523,7 @@ class Triangle extends OpMode {
      */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (follower.atParametricEnd()) {
             follower.followPath(triangle, true);
@@ -1129,7 +1540,7 @@ class Triangle extends OpMode {
         telemetryM.debug("This will run in a roughly triangular shape, starting on the bottom-middle point.");
         telemetryM.debug("So, make sure you have enough space to the left, front, and right to run the OpMode.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -1186,7 +1597,7 @@ class Circle extends OpMode {
         telemetryM.debug("So, make sure you have enough space to the left, front, and back to run the OpMode.");
         telemetryM.debug("It will also continuously face the center of the circle to test your heading and centripetal correction.");
         telemetryM.update(telemetry);
-        follower.update();
+        updateFollower();
         drawOnlyCurrent();
     }
 
@@ -1201,8 +1612,7 @@ class Circle extends OpMode {
      */
     @Override
     public void loop() {
-        follower.update();
-        draw();
+        scheduler.run();
 
         if (follower.atParametricEnd()) {
             follower.followPath(circle);
@@ -1220,6 +1630,18 @@ class Drawing {
     public static final double ROBOT_RADIUS = 9; // woah
     private static final FieldManager panelsField = PanelsField.INSTANCE.getField();
 
+    /** Packets are sent at most this often, however fast the control loop runs. */
+    public static double MAX_RATE_HZ = 20;
+
+    /** The pose history is thinned out to at most this many points per packet. */
+    public static int HISTORY_POINT_BUDGET = 100;
+
+    /**
+     * Only draws the history segments added since the last packet. This is only useful when the
+     * Panels field is set to keep previous drawings.
+     */
+    public static boolean INCREMENTAL_HISTORY = false;
+
     private static final Style robotLook = new Style(
             "", "#3F51B5", 0.75
     );
@@ -1227,20 +1649,48 @@ class Drawing {
             "", "#4CAF50", 0.75
     );
 
+    private static long lastSendNanos;
+
+    private static double[] historyX = new double[0];
+    private static double[] historyY = new double[0];
+    private static double lastHistoryX = Double.NaN;
+    private static double lastHistoryY = Double.NaN;
+
+    private static Path cachedPath;
+    private static double[][] cachedPathPoints;
+
     /**
      * This prepares Panels Field for using Pedro Offsets
      */
     public static void init() {
         panelsField.setOffsets(PanelsField.INSTANCE.getPresets().getPEDRO_PATHING());
+        lastSendNanos = 0;
+        lastHistoryX = Double.NaN;
+        lastHistoryY = Double.NaN;
+    }
+
+    /**
+     * This checks whether enough time has passed since the last packet to send another one.
+     * Nothing should be drawn when this is false, since the drawing would just be thrown away.
+     *
+     * @return true if a packet may be sent now
+     */
+    public static boolean readyToSend() {
+        return MAX_RATE_HZ <= 0 || System.nanoTime() - lastSendNanos >= 1e9 / MAX_RATE_HZ;
     }
 
     /**
      * This draws everything that will be used in the Follower's telemetryDebug() method. This takes
      * a Follower as an input, so an instance of the DashbaordDrawingHandler class is not needed.
+     * It does nothing if a packet was sent too recently.
      *
      * @param follower Pedro Follower instance.
      */
     public static void drawDebug(Follower follower) {
+        if (!readyToSend()) {
+            return;
+        }
+
         if (follower.getCurrentPath() != null) {
             drawPath(follower.getCurrentPath(), robotLook);
             Pose closestPoint = follower.getPointFromPath(follower.getCurrentPath().getClosestPointTValue());
@@ -1268,12 +1718,10 @@ class Drawing {
         panelsField.moveCursor(pose.getX(), pose.getY());
         panelsField.circle(ROBOT_RADIUS);
 
-        Vector v = pose.getHeadingAsUnitVector();
-        v.setMagnitude(v.getMagnitude() * ROBOT_RADIUS);
-        double x1 = pose.getX() + v.getXComponent() / 2, y1 = pose.getY() + v.getYComponent() / 2;
-        double x2 = pose.getX() + v.getXComponent(), y2 = pose.getY() + v.getYComponent();
+        double cos = Math.cos(pose.getHeading()) * ROBOT_RADIUS, sin = Math.sin(pose.getHeading()) * ROBOT_RADIUS;
+        double x1 = pose.getX() + cos / 2, y1 = pose.getY() + sin / 2;
+        double x2 = pose.getX() + cos, y2 = pose.getY() + sin;
 
-        panelsField.setStyle(style);
         panelsField.moveCursor(x1, y1);
         panelsField.line(x2, y2);
     }
@@ -1288,25 +1736,31 @@ class Drawing {
     }
 
     /**
-     * This draws a Path with a specified look.
+     * This draws a Path with a specified look. The Path's drawing points are only computed again
+     * when a different Path is drawn.
      *
      * @param path  the Path to draw
      * @param style the parameters used to draw the Path with
      */
     public static void drawPath(Path path, Style style) {
-        double[][] points = path.getPanelsDrawingPoints();
-
-        for (int i = 0; i < points[0].length; i++) {
-            for (int j = 0; j < points.length; j++) {
-                if (Double.isNaN(points[j][i])) {
-                    points[j][i] = 0;
+        if (path != cachedPath) {
+            double[][] points = path.getPanelsDrawingPoints();
+
+            for (int i = 0; i < points[0].length; i++) {
+                for (int j = 0; j < points.length; j++) {
+                    if (Double.isNaN(points[j][i])) {
+                        points[j][i] = 0;
+                    }
                 }
             }
+
+            cachedPath = path;
+            cachedPathPoints = points;
         }
 
         panelsField.setStyle(style);
-        panelsField.moveCursor(points[0][0], points[0][1]);
-        panelsField.line(points[1][0], points[1][1]);
+        panelsField.moveCursor(cachedPathPoints[0][0], cachedPathPoints[0][1]);
+        panelsField.line(cachedPathPoints[1][0], cachedPathPoints[1][1]);
     }
 
     /**
@@ -1323,19 +1777,43 @@ class Drawing {
     }
 
     /**
-     * This draws the pose history of the robot.
+     * This draws the pose history of the robot. The position arrays are fetched once and thinned
+     * out to HISTORY_POINT_BUDGET points. With INCREMENTAL_HISTORY, only the part of the history
+     * after the last point drawn is sent.
      *
      * @param poseTracker the PoseHistory to get the pose history from
      * @param style       the parameters used to draw the pose history with
      */
     public static void drawPoseHistory(PoseHistory poseTracker, Style style) {
-        panelsField.setStyle(style);
+        double[] xs = poseTracker.getXPositionsArray();
+        double[] ys = poseTracker.getYPositionsArray();
+        int size = Math.min(xs.length, ys.length);
+        if (size < 2) {
+            return;
+        }
 
-        int size = poseTracker.getXPositionsArray().length;
-        for (int i = 0; i < size - 1; i++) {
+        int from = 0;
+        if (INCREMENTAL_HISTORY) {
+            for (int i = size - 1; i >= 0; i--) {
+                if (xs[i] == lastHistoryX && ys[i] == lastHistoryY) {
+                    from = i;
+                    break;
+                }
+            }
+        }
+        lastHistoryX = xs[size - 1];
+        lastHistoryY = ys[size - 1];
 
-            panelsField.moveCursor(poseTracker.getXPositionsArray()[i], poseTracker.getYPositionsArray()[i]);
-            panelsField.line(poseTracker.getXPositionsArray()[i + 1], poseTracker.getYPositionsArray()[i + 1]);
+        if (historyX.length != HISTORY_POINT_BUDGET) {
+            historyX = new double[HISTORY_POINT_BUDGET];
+            historyY = new double[HISTORY_POINT_BUDGET];
+        }
+        int count = Polyline.decimate(xs, ys, from, size, HISTORY_POINT_BUDGET, historyX, historyY);
+
+        panelsField.setStyle(style);
+        for (int i = 0; i < count - 1; i++) {
+            panelsField.moveCursor(historyX[i], historyY[i]);
+            panelsField.line(historyX[i + 1], historyY[i + 1]);
         }
     }
 
@@ -1353,5 +1831,6 @@ class Drawing {
      */
     public static void sendPacket() {
         panelsField.update();
+        lastSendNanos = System.nanoTime();
     }
 }
@@ -0,0 +1,76 @@
+package org.firstinspires.ftc.teamcode.profiling
+
+/**
+ * Fixed-bucket latency histogram. Durations are bucketed by their power of two in microseconds,
+ * with each power split into [SUB_BUCKETS] linear steps, so every bucket is within 12.5% of the
+ * values it holds and [record] is a couple of shifts and an array increment. The last bucket
+ * starts at about 64 seconds and holds everything longer.
+ */
+class LatencyHistogram {
+    private val counts = LongArray(BUCKETS)
+
+    var count = 0L
+        private set
+    var totalNanos = 0L
+        private set
+    var maxNanos = 0L
+        private set
+
+    fun record(nanos: Long) {
+        counts[bucketOf(nanos)]++
+        count++
+        totalNanos += nanos
+        if (nanos > maxNanos) maxNanos = nanos
+    }
+
+    fun reset() {
+        counts.fill(0)
+        count = 0
+        totalNanos = 0
+        maxNanos = 0
+    }
+
+    fun meanMs() = if (count == 0L) Double.NaN else totalNanos / 1e6 / count
+
+    fun maxMs() = if (count == 0L) Double.NaN else maxNanos / 1e6
+
+    /** The [p]th percentile (0 to 100) in milliseconds, reported as the middle of its bucket. */
+    fun percentileMs(p: Double): Double {
+        if (count == 0L) return Double.NaN
+        val rank = Math.max(1L, Math.ceil(p / 100 * count).toLong())
+
+        var seen = 0L
+        for (i in 0 until BUCKETS) {
+            seen += counts[i]
+            if (seen >= rank) {
+                val middle = (lowerBound(i) + lowerBound(i + 1)) / 2.0 * UNIT_NANOS
+                return Math.min(middle, maxNanos.toDouble()) / 1e6
+            }
+        }
+        return maxNanos / 1e6
+    }
+
+    companion object {
+        private const val UNIT_SHIFT = 10 // ~1 µs units
+        private const val UNIT_NANOS = 1L shl UNIT_SHIFT
+        private const val SUB_BITS = 3
+        private const val SUB_BUCKETS = 1 shl SUB_BITS
+        private const val BUCKETS = 24 * SUB_BUCKETS // up to 2^26 units
+
+        private fun bucketOf(nanos: Long): Int {
+            val units = Math.max(0L, nanos) shr UNIT_SHIFT
+            if (units < SUB_BUCKETS) return units.toInt()
+
+            val exponent = 63 - java.lang.Long.numberOfLeadingZeros(units)
+            val sub = ((units shr (exponent - SUB_BITS)) and (SUB_BUCKETS - 1).toLong()).toInt()
+            return Math.min((exponent - SUB_BITS + 1) * SUB_BUCKETS + sub, BUCKETS - 1)
+        }
+
+        private fun lowerBound(bucket: Int): Long {
+            if (bucket < SUB_BUCKETS) return bucket.toLong()
+            val exponent = bucket / SUB_BUCKETS + SUB_BITS - 1
+            val sub = bucket % SUB_BUCKETS
+            return (SUB_BUCKETS + sub).toLong() shl (exponent - SUB_BITS)
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package org.firstinspires.ftc.teamcode.profiling
+
+import com.bylazar.telemetry.TelemetryManager
+import org.firstinspires.ftc.teamcode.constants.ProfilerConstants
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.telemetry.TelemetryService
+
+/**
+ * Named timing scopes with a preallocated [LatencyHistogram] each. Scopes are registered once
+ * and then timed with a [start]/[stop] pair, which is two nanoTime calls and a histogram bump;
+ * with [ProfilerConstants.enabled] off, [start] returns 0 and [stop] returns straight away.
+ *
+ * The whole cycle is timed between [beginCycle] and [endCycle], which also samples the hub
+ * transactions [HardwareCache] counted for that cycle.
+ */
+class LoopProfiler @JvmOverloads constructor(private val hardware: HardwareCache? = null) {
+    private val names = ArrayList<String>()
+    private val histograms = ArrayList<LatencyHistogram>()
+
+    var enabled = ProfilerConstants.enabled
+        private set
+
+    private var cycleStart = 0L
+    private var lastCommands = 0L
+    private var lastPublishNanos = 0L
+
+    /** Hub transactions in the last cycle. */
+    var lynxCommands = 0L
+        private set
+    var maxLynxCommands = 0L
+        private set
+    private var commandTotal = 0L
+    private var commandCycles = 0L
+
+    val loop = scope("loop")
+
+    val scopeCount: Int
+        get() = names.size
+
+    fun scope(name: String): Int {
+        val existing = names.indexOf(name)
+        if (existing >= 0) return existing
+        names.add(name)
+        histograms.add(LatencyHistogram())
+        return names.size - 1
+    }
+
+    fun name(scope: Int): String = names[scope]
+
+    fun histogram(scope: Int): LatencyHistogram = histograms[scope]
+
+    fun start(): Long = if (enabled) System.nanoTime() else 0L
+
+    fun stop(scope: Int, startNanos: Long) {
+        if (startNanos == 0L) return
+        histograms[scope].record(System.nanoTime() - startNanos)
+    }
+
+    fun time(scope: Int, action: Runnable) {
+        val start = start()
+        action.run()
+        stop(scope, start)
+    }
+
+    fun beginCycle() {
+        enabled = ProfilerConstants.enabled
+        cycleStart = start()
+    }
+
+    fun endCycle() {
+        if (cycleStart == 0L) return
+        stop(loop, cycleStart)
+
+        if (hardware != null) {
+            val commands = hardware.lynxCommands
+            if (lastCommands != 0L) {
+                lynxCommands = commands - lastCommands
+                if (lynxCommands > maxLynxCommands) maxLynxCommands = lynxCommands
+                commandTotal += lynxCommands
+                commandCycles++
+            }
+            lastCommands = commands
+        }
+    }
+
+    fun meanLynxCommands() = if (commandCycles == 0L) Double.NaN else commandTotal.toDouble() / commandCycles
+
+    fun reset() {
+        for (i in histograms.indices) histograms[i].reset()
+        maxLynxCommands = 0
+        commandTotal = 0
+        commandCycles = 0
+    }
+
+    /**
+     * Adds a summary line per scope to [panels] at most [ProfilerConstants.publishRateHz] times a
+     * second; they go out with the next Panels update. Returns whether anything was added.
+     */
+    fun publish(panels: TelemetryManager): Boolean {
+        if (!due()) return false
+
+        val builder = StringBuilder(48)
+        for (i in names.indices) {
+            val histogram = histograms[i]
+            if (histogram.count == 0L) continue
+            builder.setLength(0)
+            appendSummary(builder, histogram)
+            panels.addData("${names[i]} ms", builder.toString())
+        }
+        builder.setLength(0)
+        TelemetryService.appendFixed(builder, meanLynxCommands(), 1)
+        builder.append(" mean / ").append(maxLynxCommands).append(" max")
+        panels.addData("lynx commands", builder.toString())
+
+        if (ProfilerConstants.windowed) reset()
+        return true
+    }
+
+    private fun due(): Boolean {
+        if (!enabled || ProfilerConstants.publishRateHz <= 0) return false
+        val now = System.nanoTime()
+        if (now - lastPublishNanos < 1e9 / ProfilerConstants.publishRateHz) return false
+        lastPublishNanos = now
+        return true
+    }
+
+    private fun appendSummary(builder: StringBuilder, histogram: LatencyHistogram) {
+        builder.append("p50 ")
+        TelemetryService.appendFixed(builder, histogram.percentileMs(50.0), 2)
+        builder.append(" p95 ")
+        TelemetryService.appendFixed(builder, histogram.percentileMs(95.0), 2)
+        builder.append(" p99 ")
+        TelemetryService.appendFixed(builder, histogram.percentileMs(99.0), 2)
+        builder.append(" max ")
+        TelemetryService.appendFixed(builder, histogram.maxMs(), 2)
+    }
+}
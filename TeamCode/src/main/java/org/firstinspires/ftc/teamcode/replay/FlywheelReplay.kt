@@ -0,0 +1,109 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import org.firstinspires.ftc.teamcode.control.FlywheelController
+import org.firstinspires.ftc.teamcode.control.MotorFeedforward
+import org.firstinspires.ftc.teamcode.control.PIDController
+
+/**
+ * Re-tunes the flywheel offline. [fit] identifies a first-order model of the wheel from the
+ * logged power, voltage and velocity; [score] closes the loop around that model with candidate
+ * gains and the logged velocity targets, so gains can be compared without spinning the wheel.
+ */
+object FlywheelReplay {
+    /** v[k+1] = a * v[k] + b * volts[k] + c, per logged cycle. */
+    class Plant(val a: Double, val b: Double, val c: Double, val dt: Double)
+
+    class Gains(
+        val kS: Double, val kV: Double, val kA: Double,
+        val kP: Double, val kI: Double, val kD: Double
+    ) {
+        override fun toString() = "kS %.4f kV %.6f kA %.6f kP %.5f kI %.5f kD %.6f".format(kS, kV, kA, kP, kI, kD)
+    }
+
+    /** Least-squares fit of the wheel model. Returns null if the log has no flywheel data. */
+    @JvmStatic
+    fun fit(log: ReplayLog): Plant? {
+        // Normal equations for [v, volts, 1] -> v'.
+        val m = Array(3) { DoubleArray(3) }
+        val r = DoubleArray(3)
+        val row = DoubleArray(3)
+        var dtSum = 0.0
+        var samples = 0
+
+        for (i in 0 until log.size - 1) {
+            val v = log.flywheelVelocity[i]
+            val next = log.flywheelVelocity[i + 1]
+            val volts = log.flywheelPower[i] * log.voltage[i]
+            if (v.isNaN() || next.isNaN() || volts.isNaN()) continue
+
+            row[0] = v
+            row[1] = volts
+            row[2] = 1.0
+            for (j in 0 until 3) {
+                for (k in 0 until 3) m[j][k] += row[j] * row[k]
+                r[j] += row[j] * next
+            }
+            dtSum += (log.timeNanos[i + 1] - log.timeNanos[i]) / 1e9
+            samples++
+        }
+        if (samples < 10) return null
+
+        val solution = solve3(m, r) ?: return null
+        return Plant(solution[0], solution[1], solution[2], dtSum / samples)
+    }
+
+    /** Mean absolute velocity error while a target is set, in ticks per second. Lower is better. */
+    @JvmStatic
+    fun score(
+        log: ReplayLog,
+        plant: Plant,
+        gains: Gains,
+        maxAcceleration: Double,
+        tolerance: Double,
+        shotDropThreshold: Double
+    ): Double {
+        val controller = FlywheelController(
+            MotorFeedforward(gains.kS, gains.kV, gains.kA),
+            PIDController(gains.kP, gains.kI, gains.kD),
+            maxAcceleration, tolerance, shotDropThreshold
+        )
+
+        var velocity = if (log.size > 0 && !log.flywheelVelocity[0].isNaN()) log.flywheelVelocity[0] else 0.0
+        var errorSum = 0.0
+        var count = 0
+        var nanos = 0L
+        for (i in 0 until log.size) {
+            val target = log.flywheelTarget[i]
+            val voltage = log.voltage[i]
+            if (target.isNaN() || voltage.isNaN()) continue
+
+            nanos += (plant.dt * 1e9).toLong()
+            controller.target = target
+            val power = controller.update(velocity, voltage, plant.dt, nanos).coerceIn(-1.0, 1.0)
+            velocity = plant.a * velocity + plant.b * power * voltage + plant.c
+
+            if (target != 0.0) {
+                errorSum += Math.abs(target - velocity)
+                count++
+            }
+        }
+        return if (count == 0) Double.NaN else errorSum / count
+    }
+
+    private fun solve3(m: Array<DoubleArray>, r: DoubleArray): DoubleArray? {
+        val a = Array(3) { i -> doubleArrayOf(m[i][0], m[i][1], m[i][2], r[i]) }
+        for (col in 0 until 3) {
+            var pivot = col
+            for (row in col + 1 until 3) if (Math.abs(a[row][col]) > Math.abs(a[pivot][col])) pivot = row
+            if (Math.abs(a[pivot][col]) < 1e-12) return null
+            val swap = a[col]; a[col] = a[pivot]; a[pivot] = swap
+
+            for (row in 0 until 3) {
+                if (row == col) continue
+                val factor = a[row][col] / a[col][col]
+                for (k in col until 4) a[row][k] -= factor * a[col][k]
+            }
+        }
+        return DoubleArray(3) { a[it][3] / a[it][it] }
+    }
+}
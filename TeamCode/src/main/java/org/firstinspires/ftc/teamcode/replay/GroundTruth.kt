@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+import java.io.File
+
+/**
+ * Known robot motion to score replays against. Each [Segment] is the displacement between two
+ * log times, expressed in the robot frame at the start of the segment, so it doesn't depend on
+ * where odometry thinks the field origin is.
+ */
+class GroundTruth(val segments: List<Segment>) {
+    class Segment(
+        val startNanos: Long,
+        val endNanos: Long,
+        val forward: Double,
+        val lateral: Double,
+        val turn: Double // radians, NaN if the source doesn't know it independently
+    )
+
+    companion object {
+        /**
+         * Reads segments from a CSV of `startSeconds,endSeconds,forward,lateral,turnDegrees`, with
+         * times measured from the first record in [log]. Lines starting with # are skipped.
+         */
+        @JvmStatic
+        fun fromCsv(file: File, log: ReplayLog): GroundTruth {
+            val origin = log.timeNanos[0]
+            val segments = file.readLines()
+                .map { it.trim() }
+                .filter { it.isNotEmpty() && !it.startsWith("#") }
+                .map { line ->
+                    val v = line.split(',').map { it.trim().toDouble() }
+                    require(v.size == 5) { "Expected 5 columns in \"$line\"" }
+                    Segment(
+                        origin + (v[0] * 1e9).toLong(),
+                        origin + (v[1] * 1e9).toLong(),
+                        v[2], v[3], Math.toRadians(v[4])
+                    )
+                }
+            return GroundTruth(segments)
+        }
+
+        /**
+         * Builds segments between consecutive Limelight fixes that are at least [minSpacingSeconds]
+         * apart, using each fix's capture time. Fixes from fewer than [minTags] tags or older than
+         * [maxLatencyMs] are ignored.
+         *
+         * These segments carry no [Segment.turn]. The logged vision heading is MegaTag2's, which is
+         * just the odometry heading we sent the Limelight, so scoring turn against it would always
+         * favour the logged turn scale. Use CSV truth to tune heading.
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun fromVision(
+            log: ReplayLog,
+            minTags: Int = 1,
+            maxLatencyMs: Double = 150.0,
+            minSpacingSeconds: Double = 1.0
+        ): GroundTruth {
+            val segments = ArrayList<Segment>()
+            var lastSequence = 0L
+            var hasPrevious = false
+            var previousNanos = 0L
+            var previousX = 0.0
+            var previousY = 0.0
+            var previousHeading = 0.0
+
+            for (i in 0 until log.size) {
+                val sequence = log.visionSequence[i]
+                if (sequence == lastSequence) continue
+                lastSequence = sequence
+                if (!log.visionValid[i] || log.visionX[i].isNaN()
+                    || log.visionTags[i] < minTags || log.visionLatencyMs[i] > maxLatencyMs) continue
+
+                // FTC field frame to Pedro's, as in VisionLocalizer.
+                val nanos = log.timeNanos[i] - (log.visionLatencyMs[i] * 1e6).toLong()
+                val x = log.visionY[i] + 72
+                val y = -log.visionX[i] + 72
+                val heading = PoseFusion.wrap(log.visionHeading[i] - Math.PI / 2)
+
+                if (hasPrevious && nanos - previousNanos < minSpacingSeconds * 1e9) continue
+                if (hasPrevious) {
+                    val dx = x - previousX
+                    val dy = y - previousY
+                    val cos = Math.cos(previousHeading)
+                    val sin = Math.sin(previousHeading)
+                    segments.add(
+                        Segment(
+                            previousNanos, nanos,
+                            dx * cos + dy * sin,
+                            -dx * sin + dy * cos,
+                            Double.NaN
+                        )
+                    )
+                }
+                hasPrevious = true
+                previousNanos = nanos
+                previousX = x
+                previousY = y
+                previousHeading = heading
+            }
+            return GroundTruth(segments)
+        }
+    }
+}
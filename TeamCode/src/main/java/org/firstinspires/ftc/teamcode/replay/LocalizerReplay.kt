@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+
+/**
+ * Runs the logged pod counts through [ThreeWheelOdometry] with a candidate set of
+ * [OdometryParameters] and scores the result against [GroundTruth]. Each call allocates its own
+ * trajectory, so calls for different candidates can run in parallel on one [ReplayLog].
+ */
+object LocalizerReplay {
+    /** Inches of error that count the same as one degree of heading error. */
+    var headingWeight = 0.5
+
+    /** [headingRmsDegrees] is 0 when none of the segments had a known turn. */
+    class Result(val positionRmsInches: Double, val headingRmsDegrees: Double, val segments: Int) {
+        val score: Double
+            get() = positionRmsInches + headingWeight * headingRmsDegrees
+    }
+
+    @JvmStatic
+    fun trajectory(log: ReplayLog, parameters: OdometryParameters): Array<DoubleArray> {
+        val xs = DoubleArray(log.size)
+        val ys = DoubleArray(log.size)
+        val headings = DoubleArray(log.size)
+        if (log.size == 0) return arrayOf(xs, ys, headings)
+
+        val odometry = ThreeWheelOdometry(parameters)
+        odometry.reset(log.x[0], log.y[0], log.heading[0], log.leftTicks[0], log.rightTicks[0], log.strafeTicks[0])
+        for (i in 0 until log.size) {
+            odometry.update(log.leftTicks[i], log.rightTicks[i], log.strafeTicks[i])
+            xs[i] = odometry.x
+            ys[i] = odometry.y
+            headings[i] = odometry.heading
+        }
+        return arrayOf(xs, ys, headings)
+    }
+
+    @JvmStatic
+    fun score(log: ReplayLog, parameters: OdometryParameters, truth: GroundTruth): Result {
+        val (xs, ys, headings) = trajectory(log, parameters)
+
+        var positionSquared = 0.0
+        var headingSquared = 0.0
+        var count = 0
+        var headed = 0
+        for (segment in truth.segments) {
+            val start = log.indexAt(segment.startNanos)
+            val end = log.indexAt(segment.endNanos)
+            if (start >= log.size || end >= log.size || end <= start) continue
+
+            val dx = xs[end] - xs[start]
+            val dy = ys[end] - ys[start]
+            val cos = Math.cos(headings[start])
+            val sin = Math.sin(headings[start])
+            val forward = dx * cos + dy * sin
+            val lateral = -dx * sin + dy * cos
+            val turn = PoseFusion.wrap(headings[end] - headings[start])
+
+            val ef = forward - segment.forward
+            val el = lateral - segment.lateral
+            positionSquared += ef * ef + el * el
+            count++
+            if (!segment.turn.isNaN()) {
+                val eh = Math.toDegrees(PoseFusion.wrap(turn - segment.turn))
+                headingSquared += eh * eh
+                headed++
+            }
+        }
+
+        if (count == 0) return Result(Double.NaN, Double.NaN, 0)
+        val headingRms = if (headed == 0) 0.0 else Math.sqrt(headingSquared / headed)
+        return Result(Math.sqrt(positionSquared / count), headingRms, count)
+    }
+}
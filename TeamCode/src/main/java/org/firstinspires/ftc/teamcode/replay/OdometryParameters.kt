@@ -0,0 +1,23 @@
+package org.firstinspires.ftc.teamcode.replay
+
+/**
+ * The ThreeWheelConstants values that the localizer math depends on. Directions are Pedro's
+ * Encoder multipliers, 1 for FORWARD and -1 for REVERSE, applied to every tick delta.
+ */
+data class OdometryParameters(
+    val forwardTicksToInches: Double,
+    val strafeTicksToInches: Double,
+    val turnTicksToInches: Double,
+    val leftPodY: Double,
+    val rightPodY: Double,
+    val strafePodX: Double,
+    val leftDirection: Double = 1.0,
+    val rightDirection: Double = 1.0,
+    val strafeDirection: Double = 1.0
+) {
+    override fun toString() =
+        "forward %.8f strafe %.8f turn %.8f leftPodY %.4f rightPodY %.4f strafePodX %.4f directions %+.0f %+.0f %+.0f".format(
+            forwardTicksToInches, strafeTicksToInches, turnTicksToInches, leftPodY, rightPodY, strafePodX,
+            leftDirection, rightDirection, strafeDirection
+        )
+}
@@ -0,0 +1,35 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+
+/** Scores every candidate on a fixed thread pool and returns them best (lowest score) first. */
+object ParameterSweep {
+    class Result<P>(val parameters: P, val score: Double)
+
+    @JvmStatic
+    @JvmOverloads
+    fun <P> run(
+        candidates: List<P>,
+        threads: Int = Runtime.getRuntime().availableProcessors(),
+        score: (P) -> Double
+    ): List<Result<P>> {
+        val pool = Executors.newFixedThreadPool(threads)
+        try {
+            val futures = pool.invokeAll(candidates.map { candidate -> Callable { Result(candidate, score(candidate)) } })
+            return futures.map { it.get() }
+                .filter { !it.score.isNaN() }
+                .sortedBy { it.score }
+        } finally {
+            pool.shutdown()
+        }
+    }
+
+    /** [steps] values spread evenly over center ± [fraction] of center (or ± [fraction] when center is 0). */
+    @JvmStatic
+    fun around(center: Double, fraction: Double, steps: Int): DoubleArray {
+        if (steps <= 1) return doubleArrayOf(center)
+        val half = if (center == 0.0) fraction else Math.abs(center) * fraction
+        return DoubleArray(steps) { center - half + 2 * half * it / (steps - 1) }
+    }
+}
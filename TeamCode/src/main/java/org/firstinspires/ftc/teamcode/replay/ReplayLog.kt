@@ -0,0 +1,81 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import org.firstinspires.ftc.teamcode.logging.MatchLogReader
+import org.firstinspires.ftc.teamcode.logging.MatchRecord
+import java.io.File
+
+/**
+ * A match log loaded into primitive columns. Loading happens once; the columns are never written
+ * afterwards, so any number of replays can share one ReplayLog across threads.
+ */
+class ReplayLog private constructor(val size: Int) {
+    val timeNanos = LongArray(size)
+    val leftTicks = IntArray(size)
+    val rightTicks = IntArray(size)
+    val strafeTicks = IntArray(size)
+
+    val x = DoubleArray(size)
+    val y = DoubleArray(size)
+    val heading = DoubleArray(size)
+
+    val visionSequence = LongArray(size)
+    val visionTags = IntArray(size)
+    val visionValid = BooleanArray(size)
+    val visionX = DoubleArray(size)
+    val visionY = DoubleArray(size)
+    val visionHeading = DoubleArray(size)
+    val visionLatencyMs = DoubleArray(size)
+
+    val flywheelVelocity = DoubleArray(size)
+    val flywheelTarget = DoubleArray(size)
+    val flywheelPower = DoubleArray(size)
+    val voltage = DoubleArray(size)
+
+    /** First index whose time is at or after [nanos], or [size] if there is none. */
+    fun indexAt(nanos: Long): Int {
+        var low = 0
+        var high = size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (timeNanos[mid] < nanos) low = mid + 1 else high = mid
+        }
+        return low
+    }
+
+    fun seconds(index: Int) = (timeNanos[index] - timeNanos[0]) / 1e9
+
+    companion object {
+        @JvmStatic
+        fun load(file: File): ReplayLog {
+            MatchLogReader(file).use { reader ->
+                val record = MatchRecord()
+                var count = 0
+                while (reader.read(count, record)) count++
+
+                val log = ReplayLog(count)
+                for (i in 0 until count) {
+                    reader.read(i, record)
+                    log.timeNanos[i] = record.timeNanos
+                    log.leftTicks[i] = record.leftTicks
+                    log.rightTicks[i] = record.rightTicks
+                    log.strafeTicks[i] = record.strafeTicks
+                    log.x[i] = record.x
+                    log.y[i] = record.y
+                    log.heading[i] = record.heading
+                    log.visionSequence[i] = record.visionSequence
+                    log.visionTags[i] = record.visionTags
+                    log.visionValid[i] = record.visionValid
+                    log.visionX[i] = record.visionX
+                    log.visionY[i] = record.visionY
+                    log.visionHeading[i] = record.visionHeading
+                    log.visionLatencyMs[i] = record.visionLatencyMs
+                    log.flywheelVelocity[i] = record.flywheelVelocity
+                    log.flywheelTarget[i] = record.flywheelTarget
+                    log.flywheelPower[i] = record.flywheelPower
+                    log.voltage[i] = record.voltage
+                }
+                return log
+            }
+        }
+    }
+}
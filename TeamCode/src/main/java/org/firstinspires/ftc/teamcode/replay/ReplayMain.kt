@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import java.io.File
+
+/**
+ * Command-line entry point for the Replay module:
+ *
+ *     ./gradlew :Replay:run --args="tuning-123.bin [--truth segments.csv] [--threads 8] [--spread 0.05] [--steps 9]"
+ *
+ * Sweeps the odometry tick scales, then the pod offsets around the best scales, against either
+ * the CSV segments or the Limelight fixes in the log, and re-tunes the flywheel gains if the log
+ * has flywheel data. The starting values mirror Constants.localizerConstants and OuttakeConstants
+ * and can be overridden with --forward, --strafe, --turn, --left-pod-y, --right-pod-y,
+ * --strafe-pod-x, --left-direction, --right-direction, --strafe-direction (1 or -1, as
+ * Encoder.FORWARD or REVERSE), --kS, --kV, --kA, --kP, --kI and --kD.
+ */
+object ReplayMain {
+    @JvmStatic
+    fun main(args: Array<String>) {
+        if (args.isEmpty()) {
+            System.err.println("usage: replay <log.bin> [--truth segments.csv] [--threads n] [--spread f] [--steps n]")
+            return
+        }
+        val options = parse(args.drop(1))
+        fun number(name: String, default: Double) = options[name]?.toDouble() ?: default
+
+        val start = System.nanoTime()
+        val log = ReplayLog.load(File(args[0]))
+        val threads = number("threads", Runtime.getRuntime().availableProcessors().toDouble()).toInt()
+        val spread = number("spread", 0.05)
+        val steps = number("steps", 9.0).toInt()
+        println("Loaded ${log.size} cycles (${"%.1f".format(if (log.size > 0) log.seconds(log.size - 1) else 0.0)} s)")
+
+        val truth = options["truth"]?.let { GroundTruth.fromCsv(File(it), log) } ?: GroundTruth.fromVision(log)
+        println("${truth.segments.size} ground truth segments")
+
+        if (truth.segments.isNotEmpty()) {
+            val base = OdometryParameters(
+                number("forward", 0.15698020096615317),
+                number("strafe", 0.04444467342803911),
+                number("turn", 0.004329341891969647),
+                number("left-pod-y", 3.418503937),
+                number("right-pod-y", -3.3877952756),
+                number("strafe-pod-x", -4.0962598425),
+                number("left-direction", -1.0),
+                number("right-direction", -1.0),
+                number("strafe-direction", 1.0)
+            )
+            println("Current:   ${describe(LocalizerReplay.score(log, base, truth))}  $base")
+
+            val scales = ArrayList<OdometryParameters>()
+            for (forward in ParameterSweep.around(base.forwardTicksToInches, spread, steps))
+                for (strafe in ParameterSweep.around(base.strafeTicksToInches, spread, steps))
+                    for (turn in ParameterSweep.around(base.turnTicksToInches, spread, steps))
+                        scales.add(base.copy(forwardTicksToInches = forward, strafeTicksToInches = strafe, turnTicksToInches = turn))
+            val bestScale = ParameterSweep.run(scales, threads) { LocalizerReplay.score(log, it, truth).score }
+            if (bestScale.isEmpty()) return
+
+            val pods = ArrayList<OdometryParameters>()
+            val scaleWinner = bestScale[0].parameters
+            for (left in ParameterSweep.around(scaleWinner.leftPodY, spread, steps))
+                for (right in ParameterSweep.around(scaleWinner.rightPodY, spread, steps))
+                    for (strafeX in ParameterSweep.around(scaleWinner.strafePodX, spread, steps))
+                        pods.add(scaleWinner.copy(leftPodY = left, rightPodY = right, strafePodX = strafeX))
+            val best = ParameterSweep.run(pods, threads) { LocalizerReplay.score(log, it, truth).score }
+
+            println("Best ${Math.min(5, best.size)} of ${scales.size + pods.size} odometry candidates:")
+            for (result in best.take(5)) {
+                println("  ${describe(LocalizerReplay.score(log, result.parameters, truth))}  ${result.parameters}")
+            }
+        }
+
+        val plant = FlywheelReplay.fit(log)
+        if (plant != null) {
+            val base = FlywheelReplay.Gains(
+                number("kS", 0.12), number("kV", 0.0052), number("kA", 0.0006),
+                number("kP", 0.004), number("kI", 0.0), number("kD", 0.0)
+            )
+            val maxAcceleration = number("max-acceleration", 6000.0)
+            val tolerance = number("tolerance", 40.0)
+            val drop = number("shot-drop", 120.0)
+            fun score(gains: FlywheelReplay.Gains) =
+                FlywheelReplay.score(log, plant, gains, maxAcceleration, tolerance, drop)
+
+            val candidates = ArrayList<FlywheelReplay.Gains>()
+            for (kS in ParameterSweep.around(base.kS, 4 * spread, steps))
+                for (kV in ParameterSweep.around(base.kV, 4 * spread, steps))
+                    for (kP in ParameterSweep.around(base.kP, 10 * spread, steps))
+                        candidates.add(FlywheelReplay.Gains(kS, kV, base.kA, kP, base.kI, base.kD))
+            val best = ParameterSweep.run(candidates, threads) { score(it) }
+
+            println("Flywheel model a %.5f b %.3f c %.3f, current gains %.1f ticks/s mean error".format(
+                plant.a, plant.b, plant.c, score(base)))
+            for (result in best.take(5)) println("  %.1f ticks/s  %s".format(result.score, result.parameters))
+        }
+
+        println("Done in %.1f s on %d threads".format((System.nanoTime() - start) / 1e9, threads))
+    }
+
+    private fun describe(result: LocalizerReplay.Result) =
+        "%.3f in / %.3f deg rms over %d segments".format(result.positionRmsInches, result.headingRmsDegrees, result.segments)
+
+    private fun parse(args: List<String>): Map<String, String> {
+        val options = HashMap<String, String>()
+        var i = 0
+        while (i < args.size) {
+            val arg = args[i]
+            require(arg.startsWith("--") && i + 1 < args.size) { "Unexpected argument $arg" }
+            options[arg.removePrefix("--")] = args[i + 1]
+            i += 2
+        }
+        return options
+    }
+}
@@ -0,0 +1,65 @@
+package org.firstinspires.ftc.teamcode.replay
+
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+
+/**
+ * The three-wheel localizer math on its own: pod tick deltas become robot-frame motion with the
+ * same formulas Pedro's ThreeWheelLocalizer uses, and are integrated into a field pose with the
+ * pose exponential so arcs don't drift with loop rate.
+ */
+class ThreeWheelOdometry(var parameters: OdometryParameters) {
+    var x = 0.0
+        private set
+    var y = 0.0
+        private set
+    var heading = 0.0
+        private set
+
+    private var lastLeft = 0
+    private var lastRight = 0
+    private var lastStrafe = 0
+
+    fun reset(x: Double, y: Double, heading: Double, left: Int, right: Int, strafe: Int) {
+        this.x = x
+        this.y = y
+        this.heading = heading
+        lastLeft = left
+        lastRight = right
+        lastStrafe = strafe
+    }
+
+    fun update(left: Int, right: Int, strafe: Int) {
+        val p = parameters
+        // The log has raw motor ticks; Pedro's Encoder flips REVERSE pods before the kinematics.
+        val dLeft = p.leftDirection * (left - lastLeft)
+        val dRight = p.rightDirection * (right - lastRight)
+        val dStrafe = p.strafeDirection * (strafe - lastStrafe)
+        lastLeft = left
+        lastRight = right
+        lastStrafe = strafe
+
+        val podSpan = p.leftPodY - p.rightPodY
+        val rotation = (dRight - dLeft) / podSpan
+        val forward = p.forwardTicksToInches * (dRight * p.leftPodY - dLeft * p.rightPodY) / podSpan
+        val lateral = p.strafeTicksToInches * (dStrafe - p.strafePodX * rotation)
+        val turn = p.turnTicksToInches * rotation
+
+        val sinTerm: Double
+        val cosTerm: Double
+        if (Math.abs(turn) < 1e-6) {
+            sinTerm = 1 - turn * turn / 6
+            cosTerm = turn / 2
+        } else {
+            sinTerm = Math.sin(turn) / turn
+            cosTerm = (1 - Math.cos(turn)) / turn
+        }
+        val localX = forward * sinTerm - lateral * cosTerm
+        val localY = forward * cosTerm + lateral * sinTerm
+
+        val cos = Math.cos(heading)
+        val sin = Math.sin(heading)
+        x += localX * cos - localY * sin
+        y += localX * sin + localY * cos
+        heading = PoseFusion.wrap(heading + turn)
+    }
+}
@@ -0,0 +1,42 @@
+package org.firstinspires.ftc.teamcode.shooting
+
+import com.pedropathing.follower.Follower
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.ShotConstants
+import org.firstinspires.ftc.teamcode.subsystems.OuttakeSubsystem
+import java.util.function.DoubleSupplier
+
+/**
+ * Runs the [ShootOnMoveSolver] every cycle from the follower's pose and velocity. The drive can
+ * hold [targetHeading] while moving and a [ShotPipeline] can use [velocitySource] so the flywheel
+ * tracks the moving solution. Register it after whatever updates the follower.
+ */
+class ShootOnMoveAimer(
+    private val follower: Follower,
+    outtake: OuttakeSubsystem,
+    blueAlliance: Boolean
+) : Subsystem {
+    val solver = ShootOnMoveSolver(
+        outtake.shotTable,
+        ShotTable.of(ShotConstants.defaultDistances, ShotConstants.defaultFlightTimes)
+    ).apply {
+        if (blueAlliance) setGoal(ShotConstants.blueGoalX, ShotConstants.blueGoalY)
+        else setGoal(ShotConstants.redGoalX, ShotConstants.redGoalY)
+    }
+
+    val targetHeading: Double
+        get() = solver.heading
+
+    val velocitySource = DoubleSupplier { solver.velocity }
+
+    override fun periodic() {
+        solver.launcherForward = ShotConstants.launcherForward
+        solver.launcherLeft = ShotConstants.launcherLeft
+        solver.launcherHeadingOffset = ShotConstants.launcherHeadingOffset
+        solver.releaseLatencySeconds = ShotConstants.releaseLatencySeconds
+
+        val pose = follower.pose
+        val velocity = follower.poseTracker.localizer.velocity
+        solver.solve(pose.x, pose.y, pose.heading, velocity.x, velocity.y, velocity.heading)
+    }
+}
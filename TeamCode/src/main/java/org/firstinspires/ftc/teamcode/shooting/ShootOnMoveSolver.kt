@@ -0,0 +1,105 @@
+package org.firstinspires.ftc.teamcode.shooting
+
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+
+/**
+ * Aims a shot while the robot is moving. The artifact keeps the launcher's velocity, so it lands
+ * displaced by that velocity times the time of flight; aiming at a virtual goal shifted the
+ * other way cancels that out. The time of flight depends on the distance to the virtual goal,
+ * which depends on the time of flight, so the two are iterated until they agree.
+ *
+ * Everything is in Pedro's field frame: inches, radians, and field-frame velocities in inches
+ * per second. [solve] allocates nothing and converges in a handful of iterations.
+ */
+class ShootOnMoveSolver(
+    /** Distance to flywheel velocity. */
+    val shotTable: ShotTable,
+    /** Distance to time of flight, stored in the table's velocity column, in seconds. */
+    val flightTimeTable: ShotTable
+) {
+    var goalX = 0.0
+    var goalY = 0.0
+
+    var launcherForward = 0.0
+    var launcherLeft = 0.0
+    var launcherHeadingOffset = 0.0
+    var releaseLatencySeconds = 0.0
+
+    var maxIterations = 10
+    var toleranceSeconds = 1e-4
+
+    /** Heading the robot should hold for the shot. */
+    var heading = Double.NaN
+        private set
+    /** Flywheel target for the shot. */
+    var velocity = Double.NaN
+        private set
+    /** Distance from the launcher to the virtual goal. */
+    var distance = Double.NaN
+        private set
+    var flightTime = Double.NaN
+        private set
+    var virtualGoalX = Double.NaN
+        private set
+    var virtualGoalY = Double.NaN
+        private set
+    var iterations = 0
+        private set
+    var converged = false
+        private set
+
+    fun setGoal(x: Double, y: Double) {
+        goalX = x
+        goalY = y
+    }
+
+    /**
+     * Solves for a robot at ([x], [y], [robotHeading]) moving at ([vx], [vy]) and turning at
+     * [omega]. Returns whether the iteration converged; the outputs are filled in either way.
+     */
+    fun solve(x: Double, y: Double, robotHeading: Double, vx: Double, vy: Double, omega: Double): Boolean {
+        // Where the launcher will be, and how fast it will be moving, when the artifact leaves.
+        val releaseHeading = robotHeading + omega * releaseLatencySeconds
+        val cos = Math.cos(releaseHeading)
+        val sin = Math.sin(releaseHeading)
+        val offsetX = launcherForward * cos - launcherLeft * sin
+        val offsetY = launcherForward * sin + launcherLeft * cos
+        val launchX = x + vx * releaseLatencySeconds + offsetX
+        val launchY = y + vy * releaseLatencySeconds + offsetY
+        val launchVx = vx - omega * offsetY
+        val launchVy = vy + omega * offsetX
+
+        var time = flightTimeTable.velocityAt(Math.hypot(goalX - launchX, goalY - launchY))
+        if (time.isNaN()) time = 0.0
+        var targetX = goalX
+        var targetY = goalY
+        var range = 0.0
+        converged = false
+
+        var i = 0
+        while (i < maxIterations) {
+            i++
+            targetX = goalX - launchVx * time
+            targetY = goalY - launchVy * time
+            range = Math.hypot(targetX - launchX, targetY - launchY)
+
+            val next = flightTimeTable.velocityAt(range)
+            if (next.isNaN()) break
+            val change = Math.abs(next - time)
+            time = next
+            if (change < toleranceSeconds) {
+                converged = true
+                break
+            }
+        }
+
+        iterations = i
+        flightTime = time
+        virtualGoalX = targetX
+        virtualGoalY = targetY
+        distance = range
+        velocity = shotTable.velocityAt(range)
+        heading = PoseFusion.wrap(Math.atan2(targetY - launchY, targetX - launchX) - launcherHeadingOffset)
+        return converged
+    }
+}
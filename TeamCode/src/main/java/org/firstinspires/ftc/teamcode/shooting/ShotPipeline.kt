@@ -0,0 +1,156 @@
+package org.firstinspires.ftc.teamcode.shooting
+
+import org.firstinspires.ftc.teamcode.command.Command
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.EArtifact
+import org.firstinspires.ftc.teamcode.constants.OuttakeConstants
+import org.firstinspires.ftc.teamcode.profiling.LatencyHistogram
+import org.firstinspires.ftc.teamcode.subsystems.OuttakeSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.SpindexerSubsystem
+import org.firstinspires.ftc.teamcode.subsystems.TransferSubsystem
+import org.firstinspires.ftc.teamcode.util.Clock
+import java.util.function.DoubleSupplier
+
+/**
+ * Fires a volley of up to [shots] artifacts with the stages overlapped. The flywheel spins up
+ * while the spindexer brings the first artifact round; each stroke starts on the first cycle that
+ * the artifact is lined up, the kicker is clear and the flywheel reports ready; and as soon as
+ * the kicker is back the spindexer pre-indexes the next artifact while the wheel recovers.
+ *
+ * The intake isn't a requirement, so a collect command can keep running alongside. When the
+ * volley ends the spindexer turns its nearest empty slot back to the intake.
+ *
+ * Every stage's wait is kept in a [LatencyHistogram] across volleys: [indexWait] (artifact not
+ * yet lined up), [spinUpWait] (lined up, wheel not ready), [stroke] (kicker out and back),
+ * [shotGap] (stroke start to stroke start) and [volley] (whole command).
+ */
+class ShotPipeline(
+    private val spindexer: SpindexerSubsystem,
+    private val transfer: TransferSubsystem,
+    private val outtake: OuttakeSubsystem,
+    var shots: Int = SpindexerSubsystem.SLOTS
+) : Command {
+    override val requirements: Set<Subsystem> = setOf(spindexer, transfer, outtake)
+
+    /** Flywheel speed for this volley; NaN uses [OuttakeConstants.launchVelocity]. */
+    var velocity = Double.NaN
+
+    /**
+     * Re-targets the flywheel every cycle, e.g. [ShotTable.velocityFor] on the goal range. While it
+     * returns NaN the last target is kept.
+     */
+    var velocitySource: DoubleSupplier? = null
+
+    /** Keep the wheel spinning after the volley, e.g. when another one is coming soon. */
+    var holdSpeed = false
+
+    val indexWait = LatencyHistogram()
+    val spinUpWait = LatencyHistogram()
+    val stroke = LatencyHistogram()
+    val shotGap = LatencyHistogram()
+    val volley = LatencyHistogram()
+
+    var fired = 0
+        private set
+
+    private var startNanos = 0L
+    private var waitNanos = 0L
+    private var lined = false
+    private var stroking = false
+    private var strokeNanos = 0L
+    private var lastStrokeNanos = 0L
+    private var shotsAtStroke = 0
+
+    override fun initialize() {
+        val now = Clock.nanoTime()
+        startNanos = now
+        waitNanos = now
+        lastStrokeNanos = 0L
+        lined = false
+        stroking = false
+        fired = 0
+
+        val source = velocitySource?.asDouble ?: Double.NaN
+        outtake.spinUp(
+            when {
+                !source.isNaN() -> source
+                !velocity.isNaN() -> velocity
+                else -> OuttakeConstants.launchVelocity
+            }
+        )
+        if (!hasArtifactAtTransfer()) spindexer.preIndexNext()
+    }
+
+    override fun execute() {
+        val now = Clock.nanoTime()
+
+        val source = velocitySource?.asDouble ?: Double.NaN
+        if (!source.isNaN()) outtake.spinUp(source)
+
+        if (stroking) {
+            if (transfer.shotsFired != shotsAtStroke && transfer.clear) {
+                stroking = false
+                stroke.record(now - strokeNanos)
+                fired++
+                spindexer.markFired()
+                waitNanos = now
+                lined = false
+            }
+            return
+        }
+
+        if (!canFire()) return
+        if (!hasArtifactAtTransfer()) {
+            if (spindexer.atTarget) spindexer.preIndexNext()
+            return
+        }
+        if (!lined) {
+            lined = true
+            indexWait.record(now - waitNanos)
+            waitNanos = now
+        }
+
+        if (!outtake.atSpeed() || !transfer.clear) return
+
+        if (transfer.transfer()) {
+            spinUpWait.record(now - waitNanos)
+            if (lastStrokeNanos != 0L) shotGap.record(now - lastStrokeNanos)
+            lastStrokeNanos = now
+            strokeNanos = now
+            shotsAtStroke = transfer.shotsFired
+            stroking = true
+        }
+    }
+
+    override fun isFinished(): Boolean {
+        if (stroking) return false
+        return fired >= shots || !canFire()
+    }
+
+    override fun end(interrupted: Boolean) {
+        volley.record(Clock.nanoTime() - startNanos)
+        if (!holdSpeed) outtake.stop()
+
+        val empty = spindexer.nextEmptySlot()
+        if (empty >= 0 && transfer.clear) spindexer.indexTo(empty, SpindexerSubsystem.Station.INTAKE)
+    }
+
+    fun resetStats() {
+        indexWait.reset()
+        spinUpWait.reset()
+        stroke.reset()
+        shotGap.reset()
+        volley.reset()
+    }
+
+    // Whether anything loaded can be the next shot. With a pattern set, a loaded artifact of the
+    // wrong colour doesn't count, so the volley ends instead of waiting for one that never comes.
+    private fun canFire() = spindexer.nextSlotFor(spindexer.nextRequired) >= 0
+
+    // The artifact lined up with the transfer is the one the pattern wants next.
+    private fun hasArtifactAtTransfer(): Boolean {
+        val slot = spindexer.slotAt(SpindexerSubsystem.Station.TRANSFER)
+        return slot >= 0 && spindexer.contents(slot) != EArtifact.NONE
+            && slot == spindexer.nextSlotFor(spindexer.nextRequired)
+    }
+}
@@ -0,0 +1,221 @@
+package org.firstinspires.ftc.teamcode.shooting
+
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.EOFException
+import java.io.File
+import java.io.FileOutputStream
+import java.io.IOException
+import java.util.function.DoubleSupplier
+
+/**
+ * Calibrated shots indexed by distance to the goal. Points are kept sorted in primitive arrays;
+ * lookups binary-search for the surrounding pair and interpolate linearly, clamping outside the
+ * calibrated range. Lookups never allocate. Launch angle is optional and NaN when not set.
+ */
+class ShotTable(val capacity: Int = 32) {
+    private val distances = DoubleArray(capacity)
+    private val velocities = DoubleArray(capacity)
+    private val angles = DoubleArray(capacity)
+
+    var size = 0
+        private set
+
+    fun distance(i: Int) = distances[i]
+    fun velocity(i: Int) = velocities[i]
+    fun angle(i: Int) = angles[i]
+
+    fun clear() {
+        size = 0
+    }
+
+    /** Adds a point, replacing any existing one at the same distance. Returns false when full. */
+    @JvmOverloads
+    fun put(distance: Double, velocity: Double, angle: Double = Double.NaN): Boolean {
+        val index = search(distance)
+        if (index < size && distances[index] == distance) {
+            velocities[index] = velocity
+            angles[index] = angle
+            return true
+        }
+        if (size == capacity) return false
+
+        System.arraycopy(distances, index, distances, index + 1, size - index)
+        System.arraycopy(velocities, index, velocities, index + 1, size - index)
+        System.arraycopy(angles, index, angles, index + 1, size - index)
+        distances[index] = distance
+        velocities[index] = velocity
+        angles[index] = angle
+        size++
+        return true
+    }
+
+    fun velocityAt(distance: Double) = interpolate(velocities, distance)
+
+    fun angleAt(distance: Double) = interpolate(angles, distance)
+
+    /** A supplier of launch velocity that follows [range]; NaN while the range is unknown. */
+    fun velocityFor(range: DoubleSupplier) = DoubleSupplier {
+        val distance = range.asDouble
+        if (distance.isNaN()) Double.NaN else velocityAt(distance)
+    }
+
+    private fun interpolate(values: DoubleArray, distance: Double): Double {
+        if (size == 0 || distance.isNaN()) return Double.NaN
+        if (distance <= distances[0]) return values[0]
+        if (distance >= distances[size - 1]) return values[size - 1]
+
+        val upper = search(distance)
+        if (distances[upper] == distance) return values[upper]
+        val lower = upper - 1
+        val t = (distance - distances[lower]) / (distances[upper] - distances[lower])
+        return values[lower] + (values[upper] - values[lower]) * t
+    }
+
+    /** First index whose distance is at or above [distance]. */
+    private fun search(distance: Double): Int {
+        var low = 0
+        var high = size
+        while (low < high) {
+            val mid = (low + high) ushr 1
+            if (distances[mid] < distance) low = mid + 1 else high = mid
+        }
+        return low
+    }
+
+    fun save(file: File) {
+        file.parentFile?.mkdirs()
+        val temp = File(file.path + ".tmp")
+        FileOutputStream(temp).use { stream ->
+            val out = DataOutputStream(stream.buffered())
+            out.writeInt(MAGIC)
+            out.writeInt(size)
+            for (i in 0 until size) {
+                out.writeFloat(distances[i].toFloat())
+                out.writeFloat(velocities[i].toFloat())
+                out.writeFloat(angles[i].toFloat())
+            }
+            out.flush()
+            // On disk before the rename, so a brown-out can't leave a renamed but empty file.
+            stream.fd.sync()
+        }
+        if (!temp.renameTo(file)) throw IOException("Couldn't replace $file")
+    }
+
+    /**
+     * Replaces the table with the contents of [file]. Returns false, leaving it untouched, if there's
+     * no valid file. The whole file is read and checked before anything is replaced.
+     */
+    fun load(file: File): Boolean {
+        if (!file.isFile) return false
+        val points = try {
+            DataInputStream(file.inputStream().buffered()).use { input ->
+                if (input.readInt() != MAGIC) return false
+                val count = input.readInt()
+                if (count < 0 || count > capacity) return false
+                FloatArray(count * 3) { input.readFloat() }
+            }
+        } catch (e: EOFException) {
+            return false
+        }
+
+        for (i in points.indices step 3) {
+            val distance = points[i]
+            val velocity = points[i + 1]
+            val angle = points[i + 2]
+            if (!distance.isFinite() || distance < 0 || !velocity.isFinite() || angle.isInfinite()) return false
+        }
+
+        clear()
+        for (i in points.indices step 3) {
+            put(points[i].toDouble(), points[i + 1].toDouble(), points[i + 2].toDouble())
+        }
+        return true
+    }
+
+    /**
+     * Collects shots that scored during calibration. [refit] bins them by distance and writes one
+     * point per bin, the mean distance and velocity of the shots in it, replacing whatever the
+     * table had within half a bin of those shots.
+     */
+    class Calibration(val capacity: Int = 256) {
+        private val distances = DoubleArray(capacity)
+        private val velocities = DoubleArray(capacity)
+        private val angles = DoubleArray(capacity)
+
+        var size = 0
+            private set
+
+        @JvmOverloads
+        fun record(distance: Double, velocity: Double, angle: Double = Double.NaN): Boolean {
+            if (size == capacity || distance.isNaN() || velocity.isNaN()) return false
+            distances[size] = distance
+            velocities[size] = velocity
+            angles[size] = angle
+            size++
+            return true
+        }
+
+        fun clear() {
+            size = 0
+        }
+
+        fun refit(table: ShotTable, binWidth: Double) {
+            if (size == 0) return
+            val order = (0 until size).sortedBy { distances[it] }
+
+            var start = 0
+            while (start < order.size) {
+                val binEnd = distances[order[start]] + binWidth
+                var end = start
+                var distanceSum = 0.0
+                var velocitySum = 0.0
+                var angleSum = 0.0
+                var angleCount = 0
+                while (end < order.size && distances[order[end]] < binEnd) {
+                    val i = order[end]
+                    distanceSum += distances[i]
+                    velocitySum += velocities[i]
+                    if (!angles[i].isNaN()) {
+                        angleSum += angles[i]
+                        angleCount++
+                    }
+                    end++
+                }
+                val count = end - start
+
+                table.removeBetween(distances[order[start]] - binWidth / 2, distances[order[end - 1]] + binWidth / 2)
+                table.put(
+                    distanceSum / count,
+                    velocitySum / count,
+                    if (angleCount == 0) Double.NaN else angleSum / angleCount
+                )
+                start = end
+            }
+        }
+    }
+
+    private fun removeBetween(from: Double, to: Double) {
+        var write = 0
+        for (read in 0 until size) {
+            if (distances[read] in from..to) continue
+            distances[write] = distances[read]
+            velocities[write] = velocities[read]
+            angles[write] = angles[read]
+            write++
+        }
+        size = write
+    }
+
+    companion object {
+        private const val MAGIC = 0x53485442 // "SHTB"
+
+        /** A table filled from [distances]/[velocities], e.g. the defaults in ShotConstants. */
+        @JvmStatic
+        fun of(distances: DoubleArray, velocities: DoubleArray): ShotTable {
+            val table = ShotTable(Math.max(32, distances.size))
+            for (i in 0 until Math.min(distances.size, velocities.size)) table.put(distances[i], velocities[i])
+            return table
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package org.firstinspires.ftc.teamcode.sim
+
+/**
+ * Planar rigid-body model of a mecanum chassis in Pedro field coordinates (inches, radians,
+ * x forward and y left in the robot frame). Each wheel's surface speed follows a first-order
+ * response toward its commanded speed; the chassis motion is the forward kinematics of the four
+ * wheel speeds. The robot-frame displacement of the last step is kept for the odometry model.
+ */
+class MecanumPhysics(
+    var maxWheelSpeed: Double = 70.0, // inches per second at nominal voltage
+    var wheelTimeConstant: Double = 0.12, // seconds
+    var coastTimeConstant: Double = 0.8, // seconds, unpowered on FLOAT
+    var trackWidth: Double = 13.0,
+    var wheelBase: Double = 11.0
+) {
+    var x = 0.0
+    var y = 0.0
+    var heading = 0.0
+
+    var forwardVelocity = 0.0
+        private set
+    var lateralVelocity = 0.0
+        private set
+    var angularVelocity = 0.0
+        private set
+
+    var deltaForward = 0.0
+        private set
+    var deltaLateral = 0.0
+        private set
+    var deltaHeading = 0.0
+        private set
+
+    /** Surface speeds in leftFront, rightFront, leftRear, rightRear order. */
+    val wheelSpeeds = DoubleArray(4)
+
+    fun setPose(x: Double, y: Double, heading: Double) {
+        this.x = x
+        this.y = y
+        this.heading = heading
+        wheelSpeeds.fill(0.0)
+    }
+
+    /** [powers] are the applied wheel powers in leftFront, rightFront, leftRear, rightRear order. */
+    fun step(powers: DoubleArray, voltageRatio: Double, brake: Boolean, dt: Double) {
+        for (i in 0 until 4) {
+            val coasting = powers[i] == 0.0 && !brake
+            val target = if (coasting) 0.0 else powers[i] * voltageRatio * maxWheelSpeed
+            val tau = if (coasting) coastTimeConstant else wheelTimeConstant
+            wheelSpeeds[i] += (target - wheelSpeeds[i]) * Math.min(1.0, dt / tau)
+        }
+
+        val lf = wheelSpeeds[0]
+        val rf = wheelSpeeds[1]
+        val lr = wheelSpeeds[2]
+        val rr = wheelSpeeds[3]
+        val k = (trackWidth + wheelBase) / 2
+
+        forwardVelocity = (lf + rf + lr + rr) / 4
+        lateralVelocity = (-lf + rf + lr - rr) / 4
+        angularVelocity = (-lf + rf - lr + rr) / (4 * k)
+
+        deltaForward = forwardVelocity * dt
+        deltaLateral = lateralVelocity * dt
+        deltaHeading = angularVelocity * dt
+
+        val midHeading = heading + deltaHeading / 2
+        val cos = Math.cos(midHeading)
+        val sin = Math.sin(midHeading)
+        x += deltaForward * cos - deltaLateral * sin
+        y += deltaForward * sin + deltaLateral * cos
+        heading += deltaHeading
+    }
+}
@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.sim
+
+import com.qualcomm.robotcore.hardware.HardwareDevice
+import org.firstinspires.ftc.teamcode.localization.PoseRingBuffer
+import org.firstinspires.ftc.teamcode.vision.VisionFeed
+import org.firstinspires.ftc.teamcode.vision.VisionSnapshot
+import java.util.Random
+
+/**
+ * Stand-in for the Limelight. Produces MegaTag2 botposes in the FTC field frame from the true
+ * simulated pose, delayed by [latencyMs] and published at [frameRateHz], with optional noise.
+ */
+class SimLimelight(
+    var frameRateHz: Double = 30.0,
+    var latencyMs: Double = 35.0,
+    var positionNoise: Double = 0.0, // inches, one sigma
+    var goalTagId: Int = 20,
+    seed: Long = 0
+) : HardwareDevice, VisionFeed {
+    private val truth = PoseRingBuffer(256)
+    private val random = Random(seed)
+    private val snapshot = VisionSnapshot()
+    private var nextFrameNanos = 0L
+    private var sequence = 0L
+
+    var goalX = 12.0 // Pedro coordinates, inches
+    var goalY = 132.0
+
+    fun step(nowNanos: Long, x: Double, y: Double, heading: Double) {
+        truth.add(nowNanos, x, y, heading)
+        if (nowNanos < nextFrameNanos) return
+        nextFrameNanos = nowNanos + (1e9 / frameRateHz).toLong()
+
+        val captureNanos = nowNanos - (latencyMs * 1e6).toLong()
+        val index = truth.floorIndex(captureNanos)
+        if (index < 0) return
+
+        val px = truth.x(index) + random.nextGaussian() * positionNoise
+        val py = truth.y(index) + random.nextGaussian() * positionNoise
+
+        snapshot.sequence = ++sequence
+        snapshot.valid = true
+        snapshot.captureNanos = captureNanos
+        snapshot.latencyMs = latencyMs
+        snapshot.hasBotpose = false
+        snapshot.hasBotposeMt2 = true
+        snapshot.botposeMt2X = 72 - py
+        snapshot.botposeMt2Y = px - 72
+        snapshot.botposeMt2Heading = truth.heading(index) + Math.PI / 2
+        snapshot.fiducialCount = 1
+        snapshot.fiducialIds[0] = goalTagId
+        snapshot.fiducialDistance[0] = Math.hypot(goalX - px, goalY - py)
+    }
+
+    override fun latest() = snapshot
+
+    override fun setRobotHeading(radians: Double) {}
+
+    override fun stop() {}
+
+    override fun getManufacturer() = HardwareDevice.Manufacturer.Other
+
+    override fun getDeviceName() = "Simulated Limelight"
+
+    override fun getConnectionInfo() = "sim"
+
+    override fun getVersion() = 1
+
+    override fun resetDeviceConfigurationForOpMode() {}
+
+    override fun close() {}
+}
@@ -0,0 +1,230 @@
+package org.firstinspires.ftc.teamcode.sim
+
+import com.qualcomm.robotcore.hardware.DcMotor
+import com.qualcomm.robotcore.hardware.DcMotorController
+import com.qualcomm.robotcore.hardware.DcMotorEx
+import com.qualcomm.robotcore.hardware.DcMotorSimple
+import com.qualcomm.robotcore.hardware.HardwareDevice
+import com.qualcomm.robotcore.hardware.PIDCoefficients
+import com.qualcomm.robotcore.hardware.PIDFCoefficients
+import com.qualcomm.robotcore.hardware.configuration.typecontainers.MotorConfigurationType
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit
+
+/**
+ * A DcMotorEx backed by a first-order motor model. Positions and velocities are in encoder ticks
+ * and are reported through [direction] the way the SDK does. A motor marked [externallyDriven]
+ * is moved by something else (drive wheels, odometry pods) through [rawPosition]/[rawVelocity].
+ */
+class SimMotor(
+    val name: String,
+    var freeSpeed: Double = 2800.0, // ticks per second at nominal voltage
+    var timeConstant: Double = 0.05, // seconds
+    var stallCurrent: Double = 9.2, // amps
+    var ticksPerRev: Double = 28.0
+) : DcMotorEx {
+    var externallyDriven = false
+    var rawPosition = 0.0
+    var rawVelocity = 0.0
+
+    /** 0 for a free shaft, 1 for a fully jammed one. */
+    var load = 0.0
+
+    var transactions = 0L
+        private set
+
+    private var power = 0.0
+    private var direction = DcMotorSimple.Direction.FORWARD
+    private var mode = DcMotor.RunMode.RUN_WITHOUT_ENCODER
+    private var zeroPowerBehavior = DcMotor.ZeroPowerBehavior.BRAKE
+    private var enabled = true
+    private var targetPosition = 0
+    private var targetTolerance = 5
+    private var encoderOffset = 0.0
+    private var currentAlert = 0.0
+    private var motorType = MotorConfigurationType.getUnspecifiedMotorType()
+    private var velocityCoefficients = PIDFCoefficients(10.0, 3.0, 0.0, 0.0)
+    private var positionCoefficients = PIDFCoefficients(10.0, 0.0, 0.0, 0.0)
+
+    private val sign: Double
+        get() = if (direction == DcMotorSimple.Direction.REVERSE) -1.0 else 1.0
+
+    /** Power actually applied to the shaft, after direction. */
+    val appliedPower: Double
+        get() = if (enabled) power * sign else 0.0
+
+    val brakes: Boolean
+        get() = zeroPowerBehavior == DcMotor.ZeroPowerBehavior.BRAKE
+
+    fun step(dt: Double, voltageRatio: Double) {
+        if (externallyDriven) return
+
+        val target = appliedPower * voltageRatio * freeSpeed * (1 - load)
+        val coasting = power == 0.0 && !brakes
+        val tau = if (coasting) timeConstant * 10 else timeConstant
+        rawVelocity += (target - rawVelocity) * Math.min(1.0, dt / tau)
+        rawPosition += rawVelocity * dt
+    }
+
+    override fun getCurrentPosition(): Int {
+        transactions++
+        return ((rawPosition - encoderOffset) * sign).toInt()
+    }
+
+    override fun getVelocity(): Double {
+        transactions++
+        return rawVelocity * sign
+    }
+
+    override fun getVelocity(unit: AngleUnit): Double {
+        val revolutionsPerSecond = getVelocity() / ticksPerRev
+        return if (unit == AngleUnit.DEGREES) revolutionsPerSecond * 360 else revolutionsPerSecond * 2 * Math.PI
+    }
+
+    override fun getCurrent(unit: CurrentUnit): Double {
+        transactions++
+        val amps = currentDraw()
+        return if (unit == CurrentUnit.MILLIAMPS) amps * 1000 else amps
+    }
+
+    /** Current in amps, without counting as a hub transaction. */
+    fun currentDraw(): Double {
+        val backEmf = if (freeSpeed == 0.0) 0.0 else rawVelocity / freeSpeed
+        return Math.abs(appliedPower - backEmf) * stallCurrent
+    }
+
+    override fun setPower(power: Double) {
+        transactions++
+        this.power = power.coerceIn(-1.0, 1.0)
+    }
+
+    override fun getPower() = power
+
+    override fun setVelocity(angularRate: Double) {
+        power = if (freeSpeed == 0.0) 0.0 else angularRate / freeSpeed
+        transactions++
+    }
+
+    override fun setVelocity(angularRate: Double, unit: AngleUnit) {
+        val revolutionsPerSecond = if (unit == AngleUnit.DEGREES) angularRate / 360 else angularRate / (2 * Math.PI)
+        setVelocity(revolutionsPerSecond * ticksPerRev)
+    }
+
+    override fun setMode(mode: DcMotor.RunMode) {
+        transactions++
+        if (mode == DcMotor.RunMode.STOP_AND_RESET_ENCODER) {
+            encoderOffset = rawPosition
+            power = 0.0
+        }
+        this.mode = mode
+    }
+
+    override fun getMode() = mode
+
+    override fun setDirection(direction: DcMotorSimple.Direction) {
+        this.direction = direction
+    }
+
+    override fun getDirection() = direction
+
+    override fun setZeroPowerBehavior(zeroPowerBehavior: DcMotor.ZeroPowerBehavior) {
+        this.zeroPowerBehavior = zeroPowerBehavior
+    }
+
+    override fun getZeroPowerBehavior() = zeroPowerBehavior
+
+    @Deprecated("Deprecated in the SDK")
+    override fun setPowerFloat() {
+        zeroPowerBehavior = DcMotor.ZeroPowerBehavior.FLOAT
+        power = 0.0
+    }
+
+    override fun getPowerFloat() = power == 0.0 && zeroPowerBehavior == DcMotor.ZeroPowerBehavior.FLOAT
+
+    override fun setTargetPosition(position: Int) {
+        targetPosition = position
+    }
+
+    override fun getTargetPosition() = targetPosition
+
+    override fun isBusy() =
+        mode == DcMotor.RunMode.RUN_TO_POSITION && Math.abs(getCurrentPosition() - targetPosition) > targetTolerance
+
+    override fun setTargetPositionTolerance(tolerance: Int) {
+        targetTolerance = tolerance
+    }
+
+    override fun getTargetPositionTolerance() = targetTolerance
+
+    override fun setMotorEnable() {
+        enabled = true
+    }
+
+    override fun setMotorDisable() {
+        enabled = false
+    }
+
+    override fun isMotorEnabled() = enabled
+
+    @Deprecated("Deprecated in the SDK")
+    override fun setPIDCoefficients(mode: DcMotor.RunMode, pidCoefficients: PIDCoefficients) {
+        setPIDFCoefficients(mode, PIDFCoefficients(pidCoefficients.p, pidCoefficients.i, pidCoefficients.d, 0.0))
+    }
+
+    override fun setPIDFCoefficients(mode: DcMotor.RunMode, pidfCoefficients: PIDFCoefficients) {
+        if (mode == DcMotor.RunMode.RUN_TO_POSITION) positionCoefficients = pidfCoefficients
+        else velocityCoefficients = pidfCoefficients
+    }
+
+    override fun setVelocityPIDFCoefficients(p: Double, i: Double, d: Double, f: Double) {
+        velocityCoefficients = PIDFCoefficients(p, i, d, f)
+    }
+
+    override fun setPositionPIDFCoefficients(p: Double) {
+        positionCoefficients = PIDFCoefficients(p, 0.0, 0.0, 0.0)
+    }
+
+    @Deprecated("Deprecated in the SDK")
+    override fun getPIDCoefficients(mode: DcMotor.RunMode): PIDCoefficients {
+        val pidf = getPIDFCoefficients(mode)
+        return PIDCoefficients(pidf.p, pidf.i, pidf.d)
+    }
+
+    override fun getPIDFCoefficients(mode: DcMotor.RunMode) =
+        if (mode == DcMotor.RunMode.RUN_TO_POSITION) positionCoefficients else velocityCoefficients
+
+    override fun getCurrentAlert(unit: CurrentUnit) =
+        if (unit == CurrentUnit.MILLIAMPS) currentAlert * 1000 else currentAlert
+
+    override fun setCurrentAlert(current: Double, unit: CurrentUnit) {
+        currentAlert = if (unit == CurrentUnit.MILLIAMPS) current / 1000 else current
+    }
+
+    override fun isOverCurrent() = currentAlert > 0 && getCurrent(CurrentUnit.AMPS) > currentAlert
+
+    override fun getMotorType(): MotorConfigurationType = motorType
+
+    override fun setMotorType(motorType: MotorConfigurationType) {
+        this.motorType = motorType
+    }
+
+    override fun getController(): DcMotorController? = null
+
+    override fun getPortNumber() = 0
+
+    override fun getManufacturer() = HardwareDevice.Manufacturer.Other
+
+    override fun getDeviceName() = "Simulated Motor"
+
+    override fun getConnectionInfo() = "sim:$name"
+
+    override fun getVersion() = 1
+
+    override fun resetDeviceConfigurationForOpMode() {
+        power = 0.0
+        direction = DcMotorSimple.Direction.FORWARD
+        mode = DcMotor.RunMode.RUN_WITHOUT_ENCODER
+    }
+
+    override fun close() {}
+}
@@ -0,0 +1,72 @@
+package org.firstinspires.ftc.teamcode.sim
+
+import com.qualcomm.robotcore.hardware.HardwareDevice
+import com.qualcomm.robotcore.hardware.Servo
+import com.qualcomm.robotcore.hardware.ServoController
+
+/**
+ * A Servo whose horn moves toward the commanded position at [travelRate] (position units per
+ * second). [actualPosition] is where the horn really is, which the SDK can't tell you.
+ */
+class SimServo(val name: String, var travelRate: Double = 2.0) : Servo {
+    private var position = Double.NaN
+    private var direction = Servo.Direction.FORWARD
+    private var minimum = 0.0
+    private var maximum = 1.0
+
+    var actualPosition = 0.0
+        private set
+
+    var transactions = 0L
+        private set
+
+    fun step(dt: Double) {
+        if (position.isNaN()) return
+        val target = scaled()
+        val step = travelRate * dt
+        actualPosition += (target - actualPosition).coerceIn(-step, step)
+    }
+
+    private fun scaled(): Double {
+        val p = if (direction == Servo.Direction.REVERSE) 1 - position else position
+        return minimum + p * (maximum - minimum)
+    }
+
+    override fun setPosition(position: Double) {
+        transactions++
+        this.position = position.coerceIn(0.0, 1.0)
+    }
+
+    override fun getPosition() = if (position.isNaN()) 0.0 else position
+
+    override fun setDirection(direction: Servo.Direction) {
+        this.direction = direction
+    }
+
+    override fun getDirection() = direction
+
+    override fun scaleRange(min: Double, max: Double) {
+        minimum = min
+        maximum = max
+    }
+
+    override fun getController(): ServoController? = null
+
+    override fun getPortNumber() = 0
+
+    override fun getManufacturer() = HardwareDevice.Manufacturer.Other
+
+    override fun getDeviceName() = "Simulated Servo"
+
+    override fun getConnectionInfo() = "sim:$name"
+
+    override fun getVersion() = 1
+
+    override fun resetDeviceConfigurationForOpMode() {
+        direction = Servo.Direction.FORWARD
+        minimum = 0.0
+        maximum = 1.0
+    }
+
+    override fun close() {}
+}
@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.sim
+
+import com.qualcomm.robotcore.hardware.HardwareDevice
+import com.qualcomm.robotcore.hardware.VoltageSensor
+
+class SimVoltageSensor(var nominal: Double = 12.8) : VoltageSensor {
+    /** Volts lost per amp drawn across all motors. */
+    var internalResistance = 0.02
+    var draw = 0.0
+
+    var transactions = 0L
+        private set
+
+    val actualVoltage: Double
+        get() = nominal - draw * internalResistance
+
+    override fun getVoltage(): Double {
+        transactions++
+        return actualVoltage
+    }
+
+    override fun getManufacturer() = HardwareDevice.Manufacturer.Other
+
+    override fun getDeviceName() = "Simulated Voltage Sensor"
+
+    override fun getConnectionInfo() = "sim"
+
+    override fun getVersion() = 1
+
+    override fun resetDeviceConfigurationForOpMode() {}
+
+    override fun close() {}
+}
@@ -0,0 +1,191 @@
+package org.firstinspires.ftc.teamcode.sim
+
+import com.pedropathing.ftc.drivetrains.MecanumConstants
+import com.pedropathing.ftc.localization.constants.ThreeWheelConstants
+import com.qualcomm.robotcore.hardware.DcMotorSimple
+import com.qualcomm.robotcore.hardware.HardwareDevice
+import com.qualcomm.robotcore.hardware.HardwareMap
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants
+import org.firstinspires.ftc.teamcode.util.Clock
+import java.util.function.LongSupplier
+
+/**
+ * A whole robot on a laptop: a [HardwareMap] holding simulated versions of every device TeamCode
+ * looks up, a mecanum chassis model and a three-wheel odometry model wired to the encoder ports
+ * named in [Constants.localizerConstants]. Time is virtual and only advances in [step], so
+ * OpModes can be run as fast as the host allows.
+ *
+ * While a SimulatedRobot is [attach]ed, [Clock] follows its virtual time. Pedro keeps its own
+ * timers on System.nanoTime(), so follower velocities are only meaningful in [realTime] runs.
+ */
+class SimulatedRobot @JvmOverloads constructor(
+    drive: MecanumConstants = Constants.driveConstants,
+    localizer: ThreeWheelConstants = Constants.localizerConstants,
+    val physics: MecanumPhysics = MecanumPhysics()
+) {
+    val hardwareMap = HardwareMap(null, null)
+
+    var timeNanos = 0L
+        private set
+
+    val voltageSensor = SimVoltageSensor()
+    val limelight = SimLimelight()
+
+    val leftFront = SimMotor(drive.leftFrontMotorName)
+    val rightFront = SimMotor(drive.rightFrontMotorName)
+    val leftRear = SimMotor(drive.leftRearMotorName)
+    val rightRear = SimMotor(drive.rightRearMotorName)
+    val intake = SimMotor("intake", freeSpeed = 2500.0, timeConstant = 0.06)
+    val flywheel = SimMotor("flywheel", freeSpeed = 2800.0, timeConstant = 0.35)
+    val spindexer = SimServo("spindexer", travelRate = 1.5)
+    val transfer = SimServo("transfer", travelRate = 4.0)
+
+    /** Set to pace [step] against the wall clock instead of running flat out. */
+    var realTime = false
+
+    private val driveMotors = arrayOf(leftFront, rightFront, leftRear, rightRear)
+    private val mounting = doubleArrayOf(
+        sign(drive.leftFrontMotorDirection),
+        sign(drive.rightFrontMotorDirection),
+        sign(drive.leftRearMotorDirection),
+        sign(drive.rightRearMotorDirection)
+    )
+    private val wheelPowers = DoubleArray(4)
+
+    private val odometry = ThreeWheelOdometryModel(
+        localizer.leftPodY,
+        localizer.rightPodY,
+        localizer.strafePodX,
+        localizer.forwardTicksToInches,
+        localizer.strafeTicksToInches
+    )
+    private val leftEncoder: SimMotor
+    private val rightEncoder: SimMotor
+    private val strafeEncoder: SimMotor
+    private val leftEncoderDirection = localizer.leftEncoderDirection
+    private val rightEncoderDirection = localizer.rightEncoderDirection
+    private val strafeEncoderDirection = localizer.strafeEncoderDirection
+
+    init {
+        for (motor in driveMotors) {
+            motor.externallyDriven = true
+        }
+        for (motor in driveMotors + arrayOf(intake, flywheel)) {
+            register(motor.name, motor)
+            hardwareMap.dcMotor.put(motor.name, motor)
+        }
+        for (servo in arrayOf(spindexer, transfer)) {
+            register(servo.name, servo)
+            hardwareMap.servo.put(servo.name, servo)
+        }
+        register("Control Hub", voltageSensor)
+        hardwareMap.voltageSensor.put("Control Hub", voltageSensor)
+        register("limelight", limelight)
+
+        leftEncoder = encoder(localizer.leftEncoder_HardwareMapName)
+        rightEncoder = encoder(localizer.rightEncoder_HardwareMapName)
+        strafeEncoder = encoder(localizer.strafeEncoder_HardwareMapName)
+    }
+
+    /** Points [Clock] at this robot's virtual time. */
+    fun attach() {
+        Clock.use(LongSupplier { timeNanos })
+    }
+
+    fun detach() {
+        Clock.use(null)
+    }
+
+    fun setPose(x: Double, y: Double, heading: Double) {
+        physics.setPose(x, y, heading)
+    }
+
+    fun step(dt: Double) {
+        val wallStart = System.nanoTime()
+        val voltageRatio = voltageSensor.actualVoltage / NOMINAL_VOLTAGE
+
+        for (i in 0 until 4) wheelPowers[i] = driveMotors[i].appliedPower * mounting[i]
+        physics.step(wheelPowers, voltageRatio, leftFront.brakes, dt)
+
+        // Drive motor ports without a pod report their own wheel travel.
+        for (i in 0 until 4) {
+            val motor = driveMotors[i]
+            motor.rawVelocity = physics.wheelSpeeds[i] * mounting[i] * WHEEL_TICKS_PER_INCH
+            motor.rawPosition += motor.rawVelocity * dt
+        }
+
+        odometry.update(physics.deltaForward, physics.deltaLateral, physics.deltaHeading)
+        writeEncoder(leftEncoder, odometry.leftTicks, leftEncoderDirection)
+        writeEncoder(rightEncoder, odometry.rightTicks, rightEncoderDirection)
+        writeEncoder(strafeEncoder, odometry.strafeTicks, strafeEncoderDirection)
+
+        intake.step(dt, voltageRatio)
+        flywheel.step(dt, voltageRatio)
+        spindexer.step(dt)
+        transfer.step(dt)
+
+        var draw = intake.currentDraw() + flywheel.currentDraw()
+        for (i in 0 until 4) {
+            draw += Math.abs(wheelPowers[i] - physics.wheelSpeeds[i] / physics.maxWheelSpeed) * DRIVE_STALL_CURRENT
+        }
+        voltageSensor.draw = draw
+
+        timeNanos += (dt * 1e9).toLong()
+        limelight.step(timeNanos, physics.x, physics.y, physics.heading)
+
+        if (realTime) {
+            val remaining = (dt * 1e9).toLong() - (System.nanoTime() - wallStart)
+            if (remaining > 0) Thread.sleep(remaining / 1_000_000, (remaining % 1_000_000).toInt())
+        }
+    }
+
+    /**
+     * Calls [loop] then steps [dt] seconds until [seconds] of simulated time have passed.
+     * Returns the wall-clock seconds it took.
+     */
+    fun run(seconds: Double, dt: Double, loop: Runnable): Double {
+        val start = System.nanoTime()
+        val end = timeNanos + (seconds * 1e9).toLong()
+        while (timeNanos < end) {
+            loop.run()
+            step(dt)
+        }
+        return (System.nanoTime() - start) / 1e9
+    }
+
+    /** Hub transactions issued so far, summed over every simulated device. */
+    fun transactions(): Long {
+        var total = voltageSensor.transactions + intake.transactions + flywheel.transactions +
+            spindexer.transactions + transfer.transactions
+        for (motor in driveMotors) total += motor.transactions
+        return total
+    }
+
+    private fun register(name: String, device: HardwareDevice) {
+        hardwareMap.put(name, device)
+    }
+
+    private fun encoder(name: String): SimMotor =
+        driveMotors.firstOrNull { it.name == name }
+            ?: SimMotor(name).also {
+                it.externallyDriven = true
+                register(name, it)
+                hardwareMap.dcMotor.put(name, it)
+            }
+
+    // Pedro multiplies the reading by the encoder direction and the SDK flips it for a reversed
+    // motor, so the raw count has to undo both for the localizer to see the true tick count.
+    private fun writeEncoder(motor: SimMotor, ticks: Double, encoderDirection: Double) {
+        val motorSign = sign(motor.getDirection())
+        motor.rawPosition = ticks * encoderDirection * motorSign
+    }
+
+    private fun sign(direction: DcMotorSimple.Direction) =
+        if (direction == DcMotorSimple.Direction.REVERSE) -1.0 else 1.0
+
+    companion object {
+        private const val NOMINAL_VOLTAGE = 12.0
+        private const val DRIVE_STALL_CURRENT = 9.2
+        private const val WHEEL_TICKS_PER_INCH = 537.7 / (104 / 25.4 * Math.PI)
+    }
+}
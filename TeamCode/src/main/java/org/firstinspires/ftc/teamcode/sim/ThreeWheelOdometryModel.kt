@@ -0,0 +1,33 @@
+package org.firstinspires.ftc.teamcode.sim
+
+/**
+ * Turns robot-frame motion into tick counts for two parallel pods at [leftPodY]/[rightPodY] and
+ * one perpendicular pod at [strafePodX], using the same offsets and tick scales as Pedro's
+ * ThreeWheelConstants.
+ */
+class ThreeWheelOdometryModel(
+    var leftPodY: Double,
+    var rightPodY: Double,
+    var strafePodX: Double,
+    var forwardTicksToInches: Double,
+    var strafeTicksToInches: Double
+) {
+    var leftTicks = 0.0
+        private set
+    var rightTicks = 0.0
+        private set
+    var strafeTicks = 0.0
+        private set
+
+    fun update(deltaForward: Double, deltaLateral: Double, deltaHeading: Double) {
+        leftTicks += (deltaForward - leftPodY * deltaHeading) / forwardTicksToInches
+        rightTicks += (deltaForward - rightPodY * deltaHeading) / forwardTicksToInches
+        strafeTicks += (deltaLateral + strafePodX * deltaHeading) / strafeTicksToInches
+    }
+
+    fun reset() {
+        leftTicks = 0.0
+        rightTicks = 0.0
+        strafeTicks = 0.0
+    }
+}
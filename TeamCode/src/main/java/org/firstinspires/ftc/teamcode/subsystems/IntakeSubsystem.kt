@@ -1,23 +1,104 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
 import com.qualcomm.robotcore.hardware.DcMotor
-import com.qualcomm.robotcore.hardware.HardwareMap
+import org.firstinspires.ftc.robotcore.external.navigation.CurrentUnit
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.IntakeConstants
+import org.firstinspires.ftc.teamcode.control.StallDetector
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
 
+/**
+ * Runs the intake roller and clears jams on its own. While collecting, the motor current is read
+ * every [IntakeConstants.currentSampleDivisor] cycles and checked against the bulk-read velocity;
+ * a stall reverses the roller for [IntakeConstants.unjamSeconds] and then goes back to collecting.
+ */
+class IntakeSubsystem(private val hardware: HardwareCache) : Subsystem {
+    private val input = hardware.motorInput("intake")
+    private val motor = hardware.motorOutput("intake", priority = 1).apply {
+        motor.zeroPowerBehavior = DcMotor.ZeroPowerBehavior.BRAKE
+    }
+
+    private val detector = StallDetector(
+        IntakeConstants.stallCurrent,
+        IntakeConstants.stallVelocity,
+        IntakeConstants.stallSeconds
+    )
+
+    // Power at nominal voltage; periodic() compensates it for the battery.
+    private var target = 0.0
+    private var collecting = false
+    private var collectStartNanos = 0L
+    private var unjamEndNanos = 0L
+
+    val velocity: Double
+        get() = input.velocity
 
-class IntakeSubsystem(hardwareMap: HardwareMap) {
-    private val motor: DcMotor = hardwareMap.dcMotor.get("intake").apply {
-        zeroPowerBehavior = DcMotor.ZeroPowerBehavior.BRAKE
-    };
+    val power: Double
+        get() = motor.power
+
+    /** The last sampled motor current in amps, NaN until the intake has collected. */
+    val current: Double
+        get() = detector.current
+
+    val unjamming: Boolean
+        get() = unjamEndNanos != 0L
+
+    var jams = 0
+        private set
 
     fun collect() {
-        motor.power = 0.9
+        if (!collecting) collectStartNanos = hardware.timestampNanos
+        collecting = true
+        target = IntakeConstants.collectPower
     }
 
     fun eject() {
-        motor.power = -0.9
+        collecting = false
+        unjamEndNanos = 0L
+        target = IntakeConstants.ejectPower
     }
 
     fun stop() {
-        motor.power = 0.0
+        collecting = false
+        unjamEndNanos = 0L
+        target = 0.0
+    }
+
+    override fun periodic() {
+        val now = hardware.timestampNanos
+
+        if (unjamEndNanos != 0L) {
+            if (now < unjamEndNanos) {
+                motor.power = hardware.voltage.compensate(IntakeConstants.ejectPower)
+                return
+            }
+            unjamEndNanos = 0L
+            collectStartNanos = now
+            detector.reset()
+        }
+
+        if (collecting && IntakeConstants.unjamEnabled && checkStall(now)) {
+            jams++
+            unjamEndNanos = now + (IntakeConstants.unjamSeconds * 1e9).toLong()
+            motor.power = hardware.voltage.compensate(IntakeConstants.ejectPower)
+            return
+        }
+
+        motor.power = hardware.voltage.compensate(target)
+    }
+
+    // At most one current read, one hub transaction, every currentSampleDivisor cycles.
+    private fun checkStall(now: Long): Boolean {
+        val divisor = Math.max(1, IntakeConstants.currentSampleDivisor)
+        if (hardware.cycle % divisor != 0L) return false
+        if ((now - collectStartNanos) / 1e9 < IntakeConstants.spinUpSeconds) return false
+
+        detector.currentThreshold = IntakeConstants.stallCurrent
+        detector.velocityThreshold = IntakeConstants.stallVelocity
+        detector.stallSeconds = IntakeConstants.stallSeconds
+
+        val amps = input.motor.getCurrent(CurrentUnit.AMPS)
+        hardware.countTransaction()
+        return detector.update(amps, input.velocity, now)
     }
-}
\ No newline at end of file
+}
@@ -1,17 +1,83 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
 import com.qualcomm.hardware.limelightvision.Limelight3A
-import com.qualcomm.robotcore.hardware.HardwareMap
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName
+import org.firstinspires.ftc.teamcode.command.Subsystem
 import org.firstinspires.ftc.teamcode.constants.EPipeline
+import org.firstinspires.ftc.teamcode.constants.WebcamConstants
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.vision.ArtifactSnapshot
+import org.firstinspires.ftc.teamcode.vision.LimelightPoller
+import org.firstinspires.ftc.teamcode.vision.VisionFeed
+import org.firstinspires.ftc.teamcode.vision.VisionSnapshot
+import org.firstinspires.ftc.teamcode.vision.WebcamTagFeed
 
-class LimelightSubsystem(hardwareMap: HardwareMap) {
-    private val limelight: Limelight3A = hardwareMap.get(Limelight3A::class.java, "limelight").also {
+class LimelightSubsystem(hardware: HardwareCache) : Subsystem {
+    private val limelight: Limelight3A? = hardware.hardwareMap.tryGet(Limelight3A::class.java, "limelight")?.also {
         it.setPollRateHz(90)
-        it.pipelineSwitch(EPipeline.APRILTAG.ordinal)
         it.start()
     }
 
+    private val webcam: WebcamTagFeed? = if (limelight != null) null else
+        hardware.hardwareMap.tryGet(WebcamName::class.java, WebcamConstants.cameraName)
+            ?.let { WebcamTagFeed(hardware.hardwareMap) }
+
+    private val poller: LimelightPoller? = limelight?.let {
+        LimelightPoller(it).apply {
+            pipeline = EPipeline.APRILTAG.ordinal
+            start()
+        }
+    }
+
+    // Without a real Limelight, tags come from the webcam if there is one, and otherwise (e.g. in
+    // the simulator) from whatever feed is mapped under the Limelight's name.
+    private val feed: VisionFeed = poller
+        ?: webcam
+        ?: hardware.hardwareMap.get(VisionFeed::class.java, "limelight")
+
+    var pipeline = EPipeline.APRILTAG
+        private set
+
+    /** Latest decoded result. Read it once per loop; the instance is recycled on the next read. */
+    val vision: VisionSnapshot
+        get() = feed.latest()
+
+    /**
+     * Artifacts on the floor from the on-hub detector, while the artifact pipeline is selected.
+     * Null without a webcam. Like [vision], the instance is recycled on the next read.
+     */
+    val artifacts: ArtifactSnapshot?
+        get() = webcam?.artifacts?.latest()
+
+    /** Distance to AprilTag [tagId] in inches, or NaN if it isn't in the latest result. */
+    fun tagDistance(tagId: Int): Double {
+        val vision = feed.latest()
+        val index = vision.indexOfFiducial(tagId)
+        return if (vision.valid && index >= 0) vision.fiducialDistance[index] else Double.NaN
+    }
+
+    /** Feeds the localizer heading to MegaTag2; the network write happens off the loop. */
+    fun setRobotHeading(radians: Double) {
+        feed.setRobotHeading(radians)
+    }
+
+    fun stop() {
+        feed.stop()
+        limelight?.stop()
+    }
+
     fun useAprilTagPipeline() {
-        limelight.pipelineSwitch(EPipeline.APRILTAG.ordinal)
+        usePipeline(EPipeline.APRILTAG)
+    }
+
+    fun useArtifactPipeline() {
+        usePipeline(EPipeline.ARTIFACT)
+    }
+
+    private fun usePipeline(pipeline: EPipeline) {
+        this.pipeline = pipeline
+        // The switch itself is a network call; the poller thread makes it.
+        poller?.pipeline = pipeline.ordinal
+        webcam?.setPipeline(pipeline)
     }
-}
\ No newline at end of file
+}
@@ -1,4 +1,166 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
-class MecanumSubsystem {
-}
\ No newline at end of file
+import com.qualcomm.robotcore.hardware.DcMotor
+import com.qualcomm.robotcore.hardware.DcMotorSimple
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.DrivetrainConstants
+import org.firstinspires.ftc.teamcode.control.PIDController
+import org.firstinspires.ftc.teamcode.hardware.CachedMotor
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.localization.PoseFusion
+import org.firstinspires.ftc.teamcode.pedroPathing.Constants
+import java.util.function.DoubleSupplier
+
+/**
+ * Field-centric teleop drive on the motors named in [Constants.driveConstants]. Stick commands
+ * are slew-limited per axis, rotated into the robot frame with the [heading] the localizer
+ * already computed this cycle, and mixed into [powers], which is normalised so no wheel exceeds
+ * [DrivetrainConstants.maxPower]. Writes go through cached outputs, so unchanged powers are
+ * never resent.
+ *
+ * With no turn command the heading is held: after the stick has been released for
+ * [DrivetrainConstants.headingLockDelay] the current heading is locked, or [holdHeading] can set
+ * one explicitly (e.g. to aim). Don't drive with this while the Pedro follower is also driving.
+ */
+class MecanumSubsystem(
+    private val hardware: HardwareCache,
+    private val heading: DoubleSupplier
+) : Subsystem {
+    private val drive = Constants.driveConstants
+
+    /** Left front, right front, left rear, right rear, as in the match log. */
+    val motors: Array<CachedMotor> = arrayOf(
+        output(drive.leftFrontMotorName, drive.leftFrontMotorDirection),
+        output(drive.rightFrontMotorName, drive.rightFrontMotorDirection),
+        output(drive.leftRearMotorName, drive.leftRearMotorDirection),
+        output(drive.rightRearMotorName, drive.rightRearMotorDirection)
+    )
+
+    /** Last computed wheel powers, in [motors] order. */
+    val powers = DoubleArray(4)
+
+    private val headingController = PIDController(DrivetrainConstants.headingP, 0.0, DrivetrainConstants.headingD)
+
+    private var forwardCommand = 0.0
+    private var strafeCommand = 0.0
+    private var turnCommand = 0.0
+    private var forward = 0.0
+    private var strafe = 0.0
+    private var turn = 0.0
+
+    /** Heading the stick directions are measured from, e.g. PI when driving from the far side. */
+    var fieldOffset = 0.0
+    var fieldCentric = true
+
+    var heldHeading = Double.NaN
+        private set
+    private var explicitHold = false
+    private var releasedSeconds = 0.0
+    private var lastNanos = 0L
+
+    /** Sets the driver's commands: [forward] and [strafe] (left positive) and [turn] (counter-clockwise positive). */
+    fun drive(forward: Double, strafe: Double, turn: Double) {
+        forwardCommand = forward
+        strafeCommand = strafe
+        turnCommand = turn
+    }
+
+    /** Holds [radians] until [releaseHeading], whatever the turn stick says. */
+    fun holdHeading(radians: Double) {
+        heldHeading = radians
+        explicitHold = true
+    }
+
+    fun releaseHeading() {
+        explicitHold = false
+        heldHeading = Double.NaN
+    }
+
+    fun stop() {
+        drive(0.0, 0.0, 0.0)
+        forward = 0.0
+        strafe = 0.0
+        turn = 0.0
+        for (i in motors.indices) {
+            powers[i] = 0.0
+            motors[i].power = 0.0
+        }
+    }
+
+    override fun periodic() {
+        val now = hardware.timestampNanos
+        val dt = if (lastNanos == 0L) 0.0 else (now - lastNanos) / 1e9
+        lastNanos = now
+
+        forward = slew(forward, forwardCommand, DrivetrainConstants.forwardSlew, dt)
+        strafe = slew(strafe, strafeCommand, DrivetrainConstants.strafeSlew, dt)
+        turn = slew(turn, turnCommand, DrivetrainConstants.turnSlew, dt)
+
+        val robotHeading = heading.asDouble
+        val rotation = holdTurn(robotHeading, dt)
+
+        var x = forward
+        var y = strafe
+        if (fieldCentric && !robotHeading.isNaN()) {
+            val angle = robotHeading - fieldOffset
+            val cos = Math.cos(angle)
+            val sin = Math.sin(angle)
+            x = forward * cos + strafe * sin
+            y = -forward * sin + strafe * cos
+        }
+
+        powers[0] = x - y - rotation
+        powers[1] = x + y + rotation
+        powers[2] = x + y - rotation
+        powers[3] = x - y + rotation
+
+        // Compensate before normalizing so a sagging battery can't skew the wheel ratios.
+        val compensation = hardware.voltage.scale
+        var largest = 0.0
+        for (i in powers.indices) {
+            powers[i] *= compensation
+            largest = Math.max(largest, Math.abs(powers[i]))
+        }
+        val scale = if (largest > DrivetrainConstants.maxPower) DrivetrainConstants.maxPower / largest else 1.0
+        for (i in motors.indices) {
+            powers[i] *= scale
+            motors[i].power = powers[i]
+        }
+    }
+
+    private fun holdTurn(robotHeading: Double, dt: Double): Double {
+        if (explicitHold || Math.abs(turnCommand) < DrivetrainConstants.turnDeadband) {
+            releasedSeconds += dt
+        } else {
+            releasedSeconds = 0.0
+            heldHeading = Double.NaN
+            headingController.reset()
+            return turn
+        }
+
+        if (robotHeading.isNaN()) return turn
+        if (heldHeading.isNaN()) {
+            if (releasedSeconds < DrivetrainConstants.headingLockDelay) return turn
+            heldHeading = robotHeading
+            headingController.reset()
+        }
+
+        headingController.kP = DrivetrainConstants.headingP
+        headingController.kD = DrivetrainConstants.headingD
+        return headingController.calculate(PoseFusion.wrap(heldHeading - robotHeading), dt)
+    }
+
+    private fun slew(current: Double, target: Double, rate: Double, dt: Double): Double {
+        if (rate <= 0) return target
+        // No time has passed (first cycle, or after a pause), so no change is allowed yet.
+        if (dt <= 0) return current
+        val step = rate * dt
+        return current + (target - current).coerceIn(-step, step)
+    }
+
+    private fun output(name: String, direction: DcMotorSimple.Direction) =
+        hardware.motorOutput(name, priority = 3).apply {
+            motor.direction = direction
+            motor.zeroPowerBehavior = DcMotor.ZeroPowerBehavior.BRAKE
+        }
+}
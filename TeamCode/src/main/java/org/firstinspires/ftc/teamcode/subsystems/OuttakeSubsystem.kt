@@ -1,14 +1,116 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
 import com.qualcomm.robotcore.hardware.DcMotor
-import com.qualcomm.robotcore.hardware.HardwareMap
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.OuttakeConstants
+import org.firstinspires.ftc.teamcode.constants.ShotConstants
+import org.firstinspires.ftc.teamcode.control.FlywheelController
+import org.firstinspires.ftc.teamcode.control.MotorFeedforward
+import org.firstinspires.ftc.teamcode.control.PIDController
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
+import org.firstinspires.ftc.teamcode.shooting.ShotTable
+import java.io.File
+import java.io.IOException
 
-class OuttakeSubsystem(hardwareMap: HardwareMap) {
-    private val motor: DcMotor = hardwareMap.dcMotor.get("flywheel").apply {
-        zeroPowerBehavior = DcMotor.ZeroPowerBehavior.BRAKE
-    };
+class OuttakeSubsystem(private val hardware: HardwareCache) : Subsystem {
+    private val input = hardware.motorInput("flywheel")
+    private val motor = hardware.motorOutput("flywheel", priority = 2).apply {
+        motor.mode = DcMotor.RunMode.RUN_WITHOUT_ENCODER
+        motor.zeroPowerBehavior = DcMotor.ZeroPowerBehavior.FLOAT
+    }
+
+    private var lastNanos = 0L
+
+    private val controller = FlywheelController(
+        MotorFeedforward(OuttakeConstants.kS, OuttakeConstants.kV, OuttakeConstants.kA),
+        PIDController(OuttakeConstants.kP, OuttakeConstants.kI, OuttakeConstants.kD),
+        OuttakeConstants.maxAcceleration,
+        OuttakeConstants.tolerance,
+        OuttakeConstants.shotDropThreshold,
+        OuttakeConstants.readyCycles
+    )
+
+    /** Launch velocity by goal distance: the saved calibration if there is one, else the defaults. */
+    val shotTable = ShotTable.of(ShotConstants.defaultDistances, ShotConstants.defaultVelocities).also {
+        try {
+            it.load(File(ShotConstants.tablePath))
+        } catch (e: IOException) {
+            // A half-written file just means we keep the defaults.
+        }
+    }
+    val calibration = ShotTable.Calibration()
+
+    val velocity: Double
+        get() = input.velocity
+
+    val targetVelocity: Double
+        get() = controller.target
+
+    val power: Double
+        get() = motor.power
+
+    /** Filtered battery voltage from the shared VoltageService. */
+    val batteryVoltage: Double
+        get() = hardware.voltage.voltage
+
+    val shotCount: Int
+        get() = controller.shotCount
+
+    /** How long the wheel took to get back to speed after the last shot, in milliseconds. */
+    val lastRecoveryMs: Double
+        get() = controller.lastRecoveryMs
+
+    fun spinUp(velocity: Double) {
+        controller.target = velocity
+    }
 
     fun launch() {
-        motor.power = 0.9
+        spinUp(OuttakeConstants.launchVelocity)
+    }
+
+    fun stop() {
+        controller.target = 0.0
+    }
+
+    fun atSpeed() = controller.ready
+
+    /** Spins up for a shot from [distance] inches using the [shotTable]. */
+    fun spinUpFor(distance: Double) {
+        val target = shotTable.velocityAt(distance)
+        if (!target.isNaN()) spinUp(target)
+    }
+
+    /** Calibration: the shot just fired from [distance] at the current target went in. */
+    fun recordSuccessfulShot(distance: Double) {
+        calibration.record(distance, controller.target)
+    }
+
+    /** Calibration: folds the recorded shots into the [shotTable] and saves it to the hub. */
+    fun saveCalibration() {
+        calibration.refit(shotTable, ShotConstants.calibrationBinInches)
+        calibration.clear()
+        shotTable.save(File(ShotConstants.tablePath))
+    }
+
+    override fun periodic() {
+        val now = hardware.timestampNanos
+        val dt = if (lastNanos == 0L) 0.0 else (now - lastNanos) / 1e9
+        lastNanos = now
+
+        applyConstants()
+        motor.power = controller.update(input.velocity, hardware.voltage.voltage, dt, now)
+    }
+
+    private fun applyConstants() {
+        controller.feedforward.kS = OuttakeConstants.kS
+        controller.feedforward.kV = OuttakeConstants.kV
+        controller.feedforward.kA = OuttakeConstants.kA
+        controller.pid.kP = OuttakeConstants.kP
+        controller.pid.kI = OuttakeConstants.kI
+        controller.pid.kD = OuttakeConstants.kD
+        controller.maxAcceleration = OuttakeConstants.maxAcceleration
+        controller.tolerance = OuttakeConstants.tolerance
+        controller.shotDropThreshold = OuttakeConstants.shotDropThreshold
+        controller.readyCycles = OuttakeConstants.readyCycles
     }
-}
\ No newline at end of file
+}
@@ -1,10 +1,160 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
-import com.qualcomm.robotcore.hardware.HardwareMap
-import com.qualcomm.robotcore.hardware.Servo
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.EArtifact
+import org.firstinspires.ftc.teamcode.constants.SpindexerConstants
+import org.firstinspires.ftc.teamcode.control.ServoTravelModel
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
 
-class SpindexerSubsystem(hardwareMap: HardwareMap) {
-    private val servo: Servo = hardwareMap.servo.get("spindexer").apply{
-        position = 0.2639;
+/**
+ * Tracks what is in each slot and where the spindexer is. The servo can't be read back, so its
+ * position is estimated with a [ServoTravelModel]; a slot only counts as lined up with a station
+ * once that estimate has arrived and settled. Moves are requested with [indexTo] and never block.
+ *
+ * With [SpindexerConstants.preIndex] on, firing an artifact immediately starts rotating the next
+ * one in the [pattern] toward the transfer, so the move overlaps the flywheel's recovery.
+ */
+class SpindexerSubsystem(private val hardware: HardwareCache) : Subsystem {
+    enum class Station { INTAKE, TRANSFER }
+
+    private val servo = hardware.servoOutput("spindexer", priority = 1).apply {
+        position = SpindexerConstants.intakePositions[0]
+    }
+    private val model = ServoTravelModel(
+        SpindexerConstants.travelRate,
+        SpindexerConstants.settleSeconds,
+        SpindexerConstants.intakePositions[0]
+    )
+    private val slots = Array(SLOTS) { EArtifact.NONE }
+    private var pattern: Array<EArtifact> = emptyArray()
+    private var patternIndex = 0
+    private var lastNanos = 0L
+
+    var targetSlot = 0
+        private set
+    var targetStation = Station.INTAKE
+        private set
+
+    val position: Double
+        get() = servo.position
+
+    /** Estimated servo position. */
+    val estimate: Double
+        get() = model.estimate
+
+    val atTarget: Boolean
+        get() = model.arrived
+
+    /** Seconds until the current move has settled. */
+    val secondsRemaining: Double
+        get() = model.secondsRemaining
+
+    val count: Int
+        get() = slots.count { it != EArtifact.NONE }
+
+    override fun periodic() {
+        val now = hardware.timestampNanos
+        val dt = if (lastNanos == 0L) 0.0 else (now - lastNanos) / 1e9
+        lastNanos = now
+
+        model.travelRate = SpindexerConstants.travelRate
+        model.settleSeconds = SpindexerConstants.settleSeconds
+        model.update(dt)
+    }
+
+    /** Starts moving [slot] toward [station]. Returns false if [slot] is out of range. */
+    fun indexTo(slot: Int, station: Station = Station.TRANSFER): Boolean {
+        if (slot !in 0 until SLOTS) return false
+        targetSlot = slot
+        targetStation = station
+        val target = positionOf(slot, station)
+        model.command(target)
+        servo.position = target
+        return true
+    }
+
+    /** The slot lined up with [station], or -1 while the spindexer is moving. */
+    fun slotAt(station: Station): Int = if (atTarget && targetStation == station) targetSlot else -1
+
+    fun contents(slot: Int): EArtifact = slots[slot]
+
+    /** Overrides a slot's contents, e.g. from a colour sensor or at the start of a match. */
+    fun setContents(slot: Int, artifact: EArtifact) {
+        slots[slot] = artifact
+    }
+
+    /** Records an artifact entering the slot at the intake. Returns that slot, or -1 if none is lined up. */
+    fun markLoaded(artifact: EArtifact = EArtifact.UNKNOWN): Int {
+        val slot = slotAt(Station.INTAKE)
+        if (slot >= 0) slots[slot] = artifact
+        return slot
+    }
+
+    /**
+     * Records the artifact at the transfer leaving, advances the [pattern] and, with pre-indexing
+     * on, starts the next required artifact toward the transfer. Returns what was fired.
+     */
+    fun markFired(): EArtifact {
+        val slot = if (targetStation == Station.TRANSFER) targetSlot else -1
+        if (slot < 0) return EArtifact.NONE
+
+        val fired = slots[slot]
+        slots[slot] = EArtifact.NONE
+        if (pattern.isNotEmpty() && fired != EArtifact.NONE) patternIndex = (patternIndex + 1) % pattern.size
+
+        if (SpindexerConstants.preIndex) preIndexNext()
+        return fired
+    }
+
+    /** Sets the colour order to shoot in (e.g. from the obelisk). An empty pattern shoots anything. */
+    fun setPattern(vararg colors: EArtifact) {
+        pattern = arrayOf(*colors)
+        patternIndex = 0
+    }
+
+    /** The colour that should be fired next, or [EArtifact.UNKNOWN] if any will do. */
+    val nextRequired: EArtifact
+        get() = if (pattern.isEmpty()) EArtifact.UNKNOWN else pattern[patternIndex]
+
+    /** Starts the next required artifact toward the transfer. Returns its slot, or -1 if none is loaded. */
+    fun preIndexNext(): Int {
+        val slot = nextSlotFor(nextRequired)
+        if (slot >= 0) indexTo(slot, Station.TRANSFER)
+        return slot
+    }
+
+    /**
+     * The loaded slot holding [artifact] that can reach the transfer soonest. Unknown colours are
+     * used when no exact match is loaded, and any artifact at all when [artifact] is UNKNOWN.
+     */
+    fun nextSlotFor(artifact: EArtifact): Int {
+        var best = closest(Station.TRANSFER) { it != EArtifact.NONE && (artifact == EArtifact.UNKNOWN || it == artifact) }
+        if (best < 0) best = closest(Station.TRANSFER) { it == EArtifact.UNKNOWN }
+        return best
+    }
+
+    /** The empty slot that can reach the intake soonest, or -1 when full. */
+    fun nextEmptySlot(): Int = closest(Station.INTAKE) { it == EArtifact.NONE }
+
+    private inline fun closest(station: Station, matches: (EArtifact) -> Boolean): Int {
+        var best = -1
+        var bestSeconds = Double.MAX_VALUE
+        for (slot in 0 until SLOTS) {
+            if (!matches(slots[slot])) continue
+            val seconds = model.secondsTo(positionOf(slot, station))
+            if (seconds < bestSeconds) {
+                best = slot
+                bestSeconds = seconds
+            }
+        }
+        return best
+    }
+
+    private fun positionOf(slot: Int, station: Station) =
+        if (station == Station.INTAKE) SpindexerConstants.intakePositions[slot]
+        else SpindexerConstants.transferPositions[slot]
+
+    companion object {
+        const val SLOTS = 3
     }
-}
\ No newline at end of file
+}
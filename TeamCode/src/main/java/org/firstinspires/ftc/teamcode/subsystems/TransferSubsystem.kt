@@ -1,14 +1,68 @@
 package org.firstinspires.ftc.teamcode.subsystems
 
-import com.qualcomm.robotcore.hardware.HardwareMap
-import com.qualcomm.robotcore.hardware.Servo
+import org.firstinspires.ftc.teamcode.command.Subsystem
+import org.firstinspires.ftc.teamcode.constants.TransferConstants
+import org.firstinspires.ftc.teamcode.control.ServoTravelModel
+import org.firstinspires.ftc.teamcode.hardware.HardwareCache
 
-class TransferSubsystem(hardwareMap: HardwareMap) {
-    private val servo: Servo = hardwareMap.servo.get("transfer").apply{
-        position = 0.2639;
+/**
+ * The kicker that pushes the artifact at the spindexer's transfer station into the flywheel.
+ * [transfer] starts one stroke: out to the fire position, then straight back to rest. The
+ * artifact has left once the kicker reaches the fire position ([shotsFired] counts up), and the
+ * spindexer is free to turn again once the kicker is back at rest ([clear]).
+ */
+class TransferSubsystem(private val hardware: HardwareCache) : Subsystem {
+    private val servo = hardware.servoOutput("transfer", priority = 1).apply {
+        position = TransferConstants.restPosition
     }
+    private val model = ServoTravelModel(
+        TransferConstants.travelRate,
+        TransferConstants.settleSeconds,
+        TransferConstants.restPosition
+    )
+    private var extending = false
+    private var retracting = false
+    private var lastNanos = 0L
 
-    fun transfer() {
+    val position: Double
+        get() = servo.position
 
+    var shotsFired = 0
+        private set
+
+    /** Whether the kicker is back at rest and out of the spindexer's way. */
+    val clear: Boolean
+        get() = !extending && !retracting && model.arrived
+
+    override fun periodic() {
+        val now = hardware.timestampNanos
+        val dt = if (lastNanos == 0L) 0.0 else (now - lastNanos) / 1e9
+        lastNanos = now
+
+        model.travelRate = TransferConstants.travelRate
+        model.settleSeconds = TransferConstants.settleSeconds
+        model.update(dt)
+
+        if (retracting && model.arrived) {
+            retracting = false
+        } else if (extending && model.arrived) {
+            extending = false
+            retracting = true
+            shotsFired++
+            move(TransferConstants.restPosition)
+        }
+    }
+
+    /** Starts a stroke. Returns false if the previous one hasn't finished. */
+    fun transfer(): Boolean {
+        if (!clear) return false
+        extending = true
+        move(TransferConstants.firePosition)
+        return true
+    }
+
+    private fun move(position: Double) {
+        model.command(position)
+        servo.position = position
     }
-}
\ No newline at end of file
+}
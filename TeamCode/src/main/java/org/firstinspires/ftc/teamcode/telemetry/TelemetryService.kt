@@ -0,0 +1,148 @@
+package org.firstinspires.ftc.teamcode.telemetry
+
+import com.bylazar.telemetry.TelemetryManager
+import org.firstinspires.ftc.robotcore.external.Telemetry
+
+/**
+ * Telemetry whose lines are registered once and then fed primitive values. Nothing is formatted
+ * when a value is set; on [update], at most [rateHz] times a second and only if something
+ * changed, the changed lines are formatted and the whole screen is sent from the cached strings.
+ * The Driver Station replaces its display with every packet, so unchanged lines still go out,
+ * but they are never rebuilt.
+ */
+class TelemetryService @JvmOverloads constructor(
+    private val telemetry: Telemetry,
+    private val panels: TelemetryManager? = null,
+    var rateHz: Double = 10.0
+) {
+    private val entries = ArrayList<Entry>()
+    private val builder = StringBuilder(32)
+    private var lastPublishNanos = 0L
+    private var changed = false
+
+    var packetsSent = 0L
+        private set
+    var packetsSkipped = 0L
+        private set
+
+    @JvmOverloads
+    fun entry(caption: String, decimals: Int = 3): Entry = Entry(caption, decimals).also { entries.add(it) }
+
+    fun line(text: String): Entry = Entry(null, 0).also {
+        it.set(text)
+        entries.add(it)
+    }
+
+    fun clear() {
+        entries.clear()
+        changed = true
+    }
+
+    /** Sends a packet if one is due and a value changed. Returns whether it sent. */
+    fun update(): Boolean {
+        val now = System.nanoTime()
+        if (!changed || (rateHz > 0 && now - lastPublishNanos < 1e9 / rateHz)) {
+            packetsSkipped++
+            return false
+        }
+        lastPublishNanos = now
+        changed = false
+
+        for (i in entries.indices) {
+            val entry = entries[i]
+            if (entry.dirty) entry.format()
+
+            if (entry.caption == null) {
+                if (panels != null) panels.debug(entry.text) else telemetry.addLine(entry.text)
+            } else {
+                if (panels != null) panels.addData(entry.caption, entry.text) else telemetry.addData(entry.caption, entry.text)
+            }
+        }
+
+        if (panels != null) panels.update(telemetry) else telemetry.update()
+        packetsSent++
+        return true
+    }
+
+    inner class Entry internal constructor(val caption: String?, private val decimals: Int) {
+        private var kind = NUMBER
+        private var number = Double.NaN
+        private var string: String? = null
+
+        internal var dirty = true
+            private set
+        internal var text = ""
+            private set
+
+        fun set(value: Double) = setNumber(NUMBER, value)
+
+        fun set(value: Int) = setNumber(NUMBER, value.toDouble())
+
+        fun set(value: Boolean) = setNumber(BOOLEAN, if (value) 1.0 else 0.0)
+
+        fun set(value: String) {
+            if (kind == TEXT && value == string) return
+            kind = TEXT
+            string = value
+            markChanged()
+        }
+
+        private fun setNumber(newKind: Int, value: Double) {
+            if (kind == newKind && (value == number || (value.isNaN() && number.isNaN()))) return
+            kind = newKind
+            number = value
+            markChanged()
+        }
+
+        private fun markChanged() {
+            dirty = true
+            changed = true
+        }
+
+        internal fun format() {
+            dirty = false
+            text = when (kind) {
+                TEXT -> string ?: ""
+                BOOLEAN -> if (number != 0.0) "true" else "false"
+                else -> {
+                    builder.setLength(0)
+                    appendFixed(builder, number, decimals)
+                    builder.toString()
+                }
+            }
+        }
+    }
+
+    companion object {
+        private const val NUMBER = 0
+        private const val BOOLEAN = 1
+        private const val TEXT = 2
+
+        private val POWERS = doubleArrayOf(1.0, 10.0, 100.0, 1000.0, 10000.0, 100000.0, 1000000.0)
+
+        /** Appends [value] with a fixed number of decimals without going through String.format. */
+        fun appendFixed(builder: StringBuilder, value: Double, decimals: Int) {
+            if (value.isNaN() || value.isInfinite() || Math.abs(value) >= 1e15) {
+                builder.append(value)
+                return
+            }
+
+            val places = decimals.coerceIn(0, POWERS.size - 1)
+            val scaled = Math.round(Math.abs(value) * POWERS[places])
+            if (value < 0 && scaled != 0L) builder.append('-')
+
+            val scale = POWERS[places].toLong()
+            builder.append(scaled / scale)
+            if (places > 0) {
+                builder.append('.')
+                val fraction = scaled % scale
+                var pad = scale / 10
+                while (pad > fraction && pad > 1) {
+                    builder.append('0')
+                    pad /= 10
+                }
+                builder.append(fraction)
+            }
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.firstinspires.ftc.teamcode.util
+
+import java.util.function.LongSupplier
+
+/**
+ * Time source for control code that has to follow simulated time. Defaults to
+ * System.nanoTime(); the simulator swaps in its own clock so it can run faster than real time.
+ */
+object Clock {
+    @Volatile
+    private var source: LongSupplier? = null
+
+    @JvmStatic
+    fun nanoTime(): Long = source?.asLong ?: System.nanoTime()
+
+    @JvmStatic
+    fun use(source: LongSupplier?) {
+        this.source = source
+    }
+}
@@ -0,0 +1,116 @@
+package org.firstinspires.ftc.teamcode.util
+
+import java.util.Arrays
+
+/**
+ * Sliding window over the last [capacity] samples. Mean and variance come from running sums,
+ * min and max from monotonic queues, so all of them are O(1); [percentile] sorts a preallocated
+ * scratch copy. Adding a sample never allocates.
+ */
+class DoubleRingBuffer(val capacity: Int) {
+    private val values = DoubleArray(capacity)
+    private val scratch = DoubleArray(capacity)
+
+    // Sequence numbers of candidate extremes, oldest first.
+    private val maxQueue = LongArray(capacity)
+    private val minQueue = LongArray(capacity)
+    private var maxHead = 0
+    private var maxSize = 0
+    private var minHead = 0
+    private var minSize = 0
+
+    private var sum = 0.0
+    private var sumOfSquares = 0.0
+    private var sinceResum = 0
+
+    /** Total number of samples ever added. */
+    var count = 0L
+        private set
+
+    var size = 0
+        private set
+
+    fun add(value: Double) {
+        val slot = (count % capacity).toInt()
+        if (size == capacity) {
+            val old = values[slot]
+            sum -= old
+            sumOfSquares -= old * old
+        } else {
+            size++
+        }
+
+        values[slot] = value
+        sum += value
+        sumOfSquares += value * value
+
+        val sequence = count++
+        val oldest = count - size
+        if (maxSize > 0 && maxQueue[maxHead] < oldest) { maxHead = (maxHead + 1) % capacity; maxSize-- }
+        if (minSize > 0 && minQueue[minHead] < oldest) { minHead = (minHead + 1) % capacity; minSize-- }
+        while (maxSize > 0 && valueOf(maxQueue[(maxHead + maxSize - 1) % capacity]) <= value) maxSize--
+        while (minSize > 0 && valueOf(minQueue[(minHead + minSize - 1) % capacity]) >= value) minSize--
+        maxQueue[(maxHead + maxSize++) % capacity] = sequence
+        minQueue[(minHead + minSize++) % capacity] = sequence
+
+        // Running sums drift as values are added and removed; rebuild them now and then.
+        if (++sinceResum >= RESUM_INTERVAL) resum()
+    }
+
+    /** The i-th sample in the window, oldest first. */
+    operator fun get(i: Int): Double = valueOf(count - size + i)
+
+    fun clear() {
+        count = 0
+        size = 0
+        sum = 0.0
+        sumOfSquares = 0.0
+        maxSize = 0
+        minSize = 0
+    }
+
+    fun isFull() = size == capacity
+
+    fun mean() = if (size == 0) Double.NaN else sum / size
+
+    /** Sample variance of the window. */
+    fun variance(): Double {
+        if (size < 2) return 0.0
+        return Math.max(0.0, (sumOfSquares - sum * sum / size) / (size - 1))
+    }
+
+    fun standardDeviation() = Math.sqrt(variance())
+
+    fun max() = if (maxSize == 0) Double.NaN else valueOf(maxQueue[maxHead])
+
+    fun min() = if (minSize == 0) Double.NaN else valueOf(minQueue[minHead])
+
+    /** Linearly interpolated percentile, [p] in 0..100. */
+    fun percentile(p: Double): Double {
+        if (size == 0) return Double.NaN
+        for (i in 0 until size) scratch[i] = get(i)
+        Arrays.sort(scratch, 0, size)
+
+        val rank = (p / 100.0).coerceIn(0.0, 1.0) * (size - 1)
+        val low = rank.toInt()
+        val high = Math.min(low + 1, size - 1)
+        return scratch[low] + (scratch[high] - scratch[low]) * (rank - low)
+    }
+
+    private fun valueOf(sequence: Long) = values[(sequence % capacity).toInt()]
+
+    private fun resum() {
+        sinceResum = 0
+        sum = 0.0
+        sumOfSquares = 0.0
+        for (i in 0 until size) {
+            val value = get(i)
+            sum += value
+            sumOfSquares += value * value
+        }
+    }
+
+    companion object {
+        private const val RESUM_INTERVAL = 4096
+    }
+}
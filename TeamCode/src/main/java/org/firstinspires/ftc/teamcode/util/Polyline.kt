@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.util
+
+object Polyline {
+    /**
+     * Copies the points in [from, to) into [outX]/[outY], keeping at most [budget] of them by
+     * sampling at an even stride. The first and last points are always kept. Returns how many
+     * points were written.
+     */
+    @JvmStatic
+    fun decimate(
+        xs: DoubleArray, ys: DoubleArray, from: Int, to: Int,
+        budget: Int, outX: DoubleArray, outY: DoubleArray
+    ): Int {
+        val count = to - from
+        if (count <= 0 || budget <= 0) return 0
+
+        if (count <= budget) {
+            System.arraycopy(xs, from, outX, 0, count)
+            System.arraycopy(ys, from, outY, 0, count)
+            return count
+        }
+
+        if (budget == 1) {
+            outX[0] = xs[to - 1]
+            outY[0] = ys[to - 1]
+            return 1
+        }
+
+        val stride = (count - 1).toDouble() / (budget - 1)
+        for (k in 0 until budget) {
+            val index = from + Math.round(k * stride).toInt()
+            outX[k] = xs[index]
+            outY[k] = ys[index]
+        }
+        return budget
+    }
+}
@@ -0,0 +1,190 @@
+package org.firstinspires.ftc.teamcode.vision
+
+import android.graphics.Canvas
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration
+import org.firstinspires.ftc.teamcode.constants.ArtifactConstants
+import org.firstinspires.ftc.teamcode.constants.EArtifact
+import org.firstinspires.ftc.vision.VisionProcessor
+import org.opencv.core.Core
+import org.opencv.core.CvType
+import org.opencv.core.Mat
+import org.opencv.core.Scalar
+import org.opencv.core.Size
+import org.opencv.imgproc.Imgproc
+
+/**
+ * Finds purple and green artifacts on the floor. Each frame is shrunk by
+ * [ArtifactConstants.downscale], the part above the floor is dropped, and each color is
+ * thresholded in HSV, opened to remove speckle and split into connected components. Every blob
+ * big enough is placed on the floor from its center pixel and the camera's mounting, and the
+ * nearest [ArtifactSnapshot.MAX_ARTIFACTS] are published through a [TripleBuffer].
+ *
+ * Unlike ColorBlobLocatorProcessor, which builds a new list of blobs and contours every frame,
+ * all Mats, scalars and component buffers here are allocated once in [init], so a steady-state
+ * frame allocates nothing on the Java heap.
+ */
+class ArtifactProcessor : VisionProcessor {
+    private val buffer = TripleBuffer(ArtifactSnapshot(), ArtifactSnapshot(), ArtifactSnapshot())
+
+    private val small = Mat()
+    private val rgb = Mat()
+    private var floor = Mat()
+    private val hsv = Mat()
+    private val mask = Mat()
+    private val labels = Mat()
+    private val stats = Mat()
+    private val centroids = Mat()
+    private var kernel = Mat()
+    private val smallSize = Size()
+    private val low = Scalar(0.0, 0.0, 0.0)
+    private val high = Scalar(0.0, 0.0, 0.0)
+    private val statsBuffer = IntArray(MAX_COMPONENTS * Imgproc.CC_STAT_MAX)
+
+    private var scale = 1
+    private var floorTop = 0
+    private var sequence = 0L
+
+    private var fx = 0.0
+    private var fy = 0.0
+    private var cx = 0.0
+    private var cy = 0.0
+
+    /** Detection time of the last frame, in milliseconds. */
+    @Volatile
+    var processMs = 0.0
+        private set
+
+    /** Safe to call from one thread only. */
+    fun latest(): ArtifactSnapshot = buffer.latest()
+
+    override fun init(width: Int, height: Int, calibration: CameraCalibration?) {
+        scale = Math.max(1, ArtifactConstants.downscale)
+        smallSize.width = (width / scale).toDouble()
+        smallSize.height = (height / scale).toDouble()
+        val rows = smallSize.height.toInt()
+        val cols = smallSize.width.toInt()
+        floorTop = (rows * ArtifactConstants.roiTop).toInt().coerceIn(0, rows - 1)
+
+        // rgb is never reallocated after this, so the floor view over it stays valid.
+        rgb.create(rows, cols, CvType.CV_8UC3)
+        floor = rgb.submat(floorTop, rows, 0, cols)
+        kernel = Imgproc.getStructuringElement(
+            Imgproc.MORPH_ELLIPSE,
+            Size(ArtifactConstants.openKernel.toDouble(), ArtifactConstants.openKernel.toDouble())
+        )
+
+        if (calibration != null && calibration.focalLengthX > 0) {
+            fx = calibration.focalLengthX.toDouble()
+            fy = calibration.focalLengthY.toDouble()
+            cx = calibration.principalPointX.toDouble()
+            cy = calibration.principalPointY.toDouble()
+        } else {
+            fx = width.toDouble()
+            fy = width.toDouble()
+            cx = width / 2.0
+            cy = height / 2.0
+        }
+    }
+
+    override fun processFrame(frame: Mat, captureTimeNanos: Long): Any? {
+        val start = System.nanoTime()
+
+        Imgproc.resize(frame, small, smallSize, 0.0, 0.0, Imgproc.INTER_AREA)
+        if (small.channels() == 4) {
+            Imgproc.cvtColor(small, rgb, Imgproc.COLOR_RGBA2RGB)
+        } else {
+            small.copyTo(rgb)
+        }
+        Imgproc.cvtColor(floor, hsv, Imgproc.COLOR_RGB2HSV)
+
+        val snapshot = buffer.back
+        snapshot.count = 0
+        detect(snapshot, EArtifact.PURPLE, ArtifactConstants.purpleLow, ArtifactConstants.purpleHigh)
+        detect(snapshot, EArtifact.GREEN, ArtifactConstants.greenLow, ArtifactConstants.greenHigh)
+
+        snapshot.sequence = ++sequence
+        snapshot.captureNanos = captureTimeNanos
+        snapshot.latencyMs = (System.nanoTime() - captureTimeNanos) / 1e6
+        buffer.publish()
+
+        processMs = (System.nanoTime() - start) / 1e6
+        return null
+    }
+
+    private fun detect(snapshot: ArtifactSnapshot, color: EArtifact, lowBound: DoubleArray, highBound: DoubleArray) {
+        for (i in 0 until 3) {
+            low.`val`[i] = lowBound[i]
+            high.`val`[i] = highBound[i]
+        }
+        Core.inRange(hsv, low, high, mask)
+        Imgproc.morphologyEx(mask, mask, Imgproc.MORPH_OPEN, kernel)
+
+        val components = Imgproc.connectedComponentsWithStats(mask, labels, stats, centroids, 8, CvType.CV_32S)
+        val read = Math.min(components, MAX_COMPONENTS)
+        stats.get(0, 0, statsBuffer)
+
+        // Label 0 is the background.
+        for (label in 1 until read) {
+            val row = label * Imgproc.CC_STAT_MAX
+            val area = statsBuffer[row + Imgproc.CC_STAT_AREA]
+            if (area < ArtifactConstants.minArea) continue
+
+            val u = (statsBuffer[row + Imgproc.CC_STAT_LEFT] + statsBuffer[row + Imgproc.CC_STAT_WIDTH] / 2.0) * scale
+            val v = (floorTop + statsBuffer[row + Imgproc.CC_STAT_TOP] + statsBuffer[row + Imgproc.CC_STAT_HEIGHT] / 2.0) * scale
+            place(snapshot, color.ordinal, u, v, area.toDouble() * scale * scale)
+        }
+    }
+
+    /** Projects pixel ([u], [v]) onto the floor and inserts it into [snapshot] by range. */
+    private fun place(snapshot: ArtifactSnapshot, color: Int, u: Double, v: Double, area: Double) {
+        val depression = Math.toRadians(ArtifactConstants.cameraPitch) + Math.atan((v - cy) / fy)
+        if (depression <= 0) return // at or above the horizon
+        val drop = ArtifactConstants.cameraHeight - ArtifactConstants.artifactRadius
+        val forward = drop / Math.tan(depression)
+        val slant = Math.hypot(forward, drop)
+        val left = -slant * (u - cx) / fx
+
+        val x = forward + ArtifactConstants.cameraForward
+        val y = left + ArtifactConstants.cameraLeft
+        val range = Math.hypot(x, y)
+
+        var index = snapshot.count
+        if (index == ArtifactSnapshot.MAX_ARTIFACTS) {
+            if (range >= snapshot.range[index - 1]) return
+            index--
+        } else {
+            snapshot.count++
+        }
+        while (index > 0 && snapshot.range[index - 1] > range) {
+            snapshot.color[index] = snapshot.color[index - 1]
+            snapshot.x[index] = snapshot.x[index - 1]
+            snapshot.y[index] = snapshot.y[index - 1]
+            snapshot.range[index] = snapshot.range[index - 1]
+            snapshot.area[index] = snapshot.area[index - 1]
+            index--
+        }
+        snapshot.color[index] = color
+        snapshot.x[index] = x
+        snapshot.y[index] = y
+        snapshot.range[index] = range
+        snapshot.area[index] = area
+    }
+
+    override fun onDrawFrame(
+        canvas: Canvas,
+        onscreenWidth: Int,
+        onscreenHeight: Int,
+        scaleBmpPxToCanvasPx: Float,
+        scaleCanvasDensity: Float,
+        userContext: Any?
+    ) {}
+
+    fun release() {
+        for (mat in arrayOf(small, rgb, floor, hsv, mask, labels, stats, centroids, kernel)) mat.release()
+    }
+
+    companion object {
+        /** Components read per color per frame, background included. */
+        const val MAX_COMPONENTS = 64
+    }
+}
@@ -0,0 +1,37 @@
+package org.firstinspires.ftc.teamcode.vision
+
+/**
+ * Artifacts found in one webcam frame, nearest first. Like [VisionSnapshot], instances are
+ * preallocated and recycled, so a reference is only stable until the next read. Positions are on
+ * the floor in the robot frame, in inches, x forward and y left.
+ */
+class ArtifactSnapshot {
+    var sequence = 0L
+        internal set
+    var captureNanos = 0L
+        internal set
+    var latencyMs = 0.0
+        internal set
+
+    var count = 0
+        internal set
+    /** [org.firstinspires.ftc.teamcode.constants.EArtifact] ordinals. */
+    val color = IntArray(MAX_ARTIFACTS)
+    val x = DoubleArray(MAX_ARTIFACTS)
+    val y = DoubleArray(MAX_ARTIFACTS)
+    val range = DoubleArray(MAX_ARTIFACTS)
+    /** Blob area in full-resolution pixels. */
+    val area = DoubleArray(MAX_ARTIFACTS)
+
+    /** Index of the nearest artifact of [color], or -1. */
+    fun nearest(color: Int): Int {
+        for (i in 0 until count) {
+            if (this.color[i] == color) return i
+        }
+        return -1
+    }
+
+    companion object {
+        const val MAX_ARTIFACTS = 8
+    }
+}
@@ -0,0 +1,153 @@
+package org.firstinspires.ftc.teamcode.vision
+
+import com.qualcomm.hardware.limelightvision.LLResult
+import com.qualcomm.hardware.limelightvision.Limelight3A
+import org.firstinspires.ftc.robotcore.external.navigation.AngleUnit
+import org.firstinspires.ftc.robotcore.external.navigation.DistanceUnit
+import org.firstinspires.ftc.robotcore.external.navigation.Pose3D
+
+/**
+ * Pulls results off the Limelight on its own thread and decodes each new one into a
+ * [VisionSnapshot], so the control loop never parses an LLResult itself. Pipeline switches and
+ * status checks are network round trips too, so they also happen here: the loop only sets
+ * [pipeline].
+ */
+class LimelightPoller(private val limelight: Limelight3A, private val pollPeriodMs: Long = 4) : VisionFeed {
+    private val buffer = TripleBuffer(VisionSnapshot(), VisionSnapshot(), VisionSnapshot())
+    private var thread: Thread? = null
+    private var lastResult: LLResult? = null
+    private var sequence = 0L
+
+    @Volatile
+    private var running = false
+
+    // Forwarded to the Limelight for MegaTag2 by the poller thread. NaN disables it.
+    @Volatile
+    private var robotHeading = Double.NaN
+
+    /** Pipeline the Limelight should be running; -1 leaves it alone. */
+    @Volatile
+    var pipeline = -1
+
+    private var sentHeading = Double.NaN
+    private var appliedPipeline = -1
+    private var lastStatusNanos = 0L
+
+    fun start() {
+        if (running) return
+        running = true
+        thread = Thread(::run, "LimelightPoller").apply {
+            isDaemon = true
+            start()
+        }
+    }
+
+    override fun stop() {
+        running = false
+        thread?.interrupt()
+        thread = null
+    }
+
+    /** Safe to call from one thread only. */
+    override fun latest(): VisionSnapshot = buffer.latest()
+
+    override fun setRobotHeading(radians: Double) {
+        robotHeading = radians
+    }
+
+    private fun run() {
+        while (running) {
+            applyPipeline()
+
+            val result = limelight.latestResult
+            val fresh = result != null && result !== lastResult
+
+            // Each orientation update is a network write, so only send one when the heading has
+            // moved or a new frame means the Limelight is about to solve MegaTag2 again.
+            val heading = robotHeading
+            if (!heading.isNaN() && (fresh || sentHeading.isNaN()
+                    || Math.abs(heading - sentHeading) > HEADING_EPSILON)) {
+                limelight.updateRobotOrientation(Math.toDegrees(heading))
+                sentHeading = heading
+            }
+
+            if (result != null && fresh) {
+                lastResult = result
+                decode(result, buffer.back)
+                buffer.publish()
+            }
+
+            try {
+                Thread.sleep(pollPeriodMs)
+            } catch (e: InterruptedException) {
+                return
+            }
+        }
+    }
+
+    // Switches as soon as a new pipeline is requested, then checks a few times a second that the
+    // Limelight is still on it, e.g. after it reboots.
+    private fun applyPipeline() {
+        val requested = pipeline
+        if (requested < 0) return
+        val now = System.nanoTime()
+        if (requested != appliedPipeline) {
+            limelight.pipelineSwitch(requested)
+            appliedPipeline = requested
+            lastStatusNanos = now
+        } else if (now - lastStatusNanos > STATUS_PERIOD_NANOS) {
+            lastStatusNanos = now
+            if (limelight.status.pipelineIndex != requested) limelight.pipelineSwitch(requested)
+        }
+    }
+
+    private fun decode(result: LLResult, snapshot: VisionSnapshot) {
+        val latencyMs = result.staleness + result.captureLatency + result.targetingLatency
+
+        snapshot.sequence = ++sequence
+        snapshot.valid = result.isValid
+        snapshot.latencyMs = latencyMs
+        snapshot.captureNanos = System.nanoTime() - (latencyMs * 1e6).toLong()
+        snapshot.pipeline = result.pipelineIndex
+        snapshot.tx = result.tx
+        snapshot.ty = result.ty
+        snapshot.ta = result.ta
+
+        val botpose = result.botpose
+        snapshot.hasBotpose = result.isValid && isPresent(botpose)
+        if (snapshot.hasBotpose) {
+            snapshot.botposeX = botpose.position.toUnit(DistanceUnit.INCH).x
+            snapshot.botposeY = botpose.position.toUnit(DistanceUnit.INCH).y
+            snapshot.botposeHeading = botpose.orientation.getYaw(AngleUnit.RADIANS)
+        }
+
+        val botposeMt2 = result.botpose_MT2
+        snapshot.hasBotposeMt2 = result.isValid && isPresent(botposeMt2)
+        if (snapshot.hasBotposeMt2) {
+            snapshot.botposeMt2X = botposeMt2.position.toUnit(DistanceUnit.INCH).x
+            snapshot.botposeMt2Y = botposeMt2.position.toUnit(DistanceUnit.INCH).y
+            snapshot.botposeMt2Heading = botposeMt2.orientation.getYaw(AngleUnit.RADIANS)
+        }
+
+        val fiducials = result.fiducialResults
+        val count = minOf(fiducials.size, VisionSnapshot.MAX_FIDUCIALS)
+        for (i in 0 until count) {
+            val fiducial = fiducials[i]
+            val position = fiducial.targetPoseRobotSpace.position.toUnit(DistanceUnit.INCH)
+            snapshot.fiducialIds[i] = fiducial.fiducialId
+            snapshot.fiducialTx[i] = fiducial.targetXDegrees
+            snapshot.fiducialTy[i] = fiducial.targetYDegrees
+            snapshot.fiducialDistance[i] = Math.hypot(position.x, position.y)
+        }
+        snapshot.fiducialCount = count
+    }
+
+    // The Limelight reports an all-zero pose when it has no botpose for the frame.
+    private fun isPresent(pose: Pose3D?) =
+        pose != null && (pose.position.x != 0.0 || pose.position.y != 0.0)
+
+    companion object {
+        private const val STATUS_PERIOD_NANOS = 250_000_000L
+        private const val HEADING_EPSILON = 0.002 // radians, about a tenth of a degree
+    }
+}
@@ -0,0 +1,114 @@
+package org.firstinspires.ftc.teamcode.vision
+
+/**
+ * Decides where and how finely the next webcam frame is searched for AprilTags. After a frame
+ * with tags, the next one is searched only inside a region of interest around where they were,
+ * padded for motion, at a decimation picked from the nearest tag's range: close tags are big
+ * enough to find in a coarse image. After [lostFrames] frames without a tag, or before the
+ * first one, the whole frame is searched at [searchDecimation].
+ *
+ * Only the vision thread touches this, so none of it is synchronized.
+ */
+class TagSearch(val width: Int, val height: Int) {
+    /** Tags nearer than this, in inches, are searched at [nearDecimation]. */
+    var nearRange = 36.0
+    /** Tags nearer than this but past [nearRange] are searched at [midDecimation]. */
+    var farRange = 84.0
+    var nearDecimation = 3f
+    var midDecimation = 2f
+    var farDecimation = 1f
+    var searchDecimation = 2f
+
+    /** Padding on each side of the last tags, as a fraction of their bounding box's larger side. */
+    var margin = 0.75
+    var minSize = 96
+    var lostFrames = 3
+
+    var x = 0
+        private set
+    var y = 0
+        private set
+    var roiWidth = width
+        private set
+    var roiHeight = height
+        private set
+    var decimation = searchDecimation
+        private set
+
+    val fullFrame: Boolean
+        get() = roiWidth == width && roiHeight == height
+
+    private var hasBounds = false
+    private var missed = 0
+    private var minX = 0.0
+    private var minY = 0.0
+    private var maxX = 0.0
+    private var maxY = 0.0
+    private var range = Double.NaN
+
+    /** Sets the region and decimation for the next frame from what [observe] last saw. */
+    fun plan() {
+        if (!hasBounds || missed >= lostFrames) {
+            x = 0
+            y = 0
+            roiWidth = width
+            roiHeight = height
+            decimation = searchDecimation
+            return
+        }
+
+        // Each miss widens the window, since the tags may have moved further than expected.
+        val pad = Math.max(maxX - minX, maxY - minY) * margin * (1 + missed)
+        var left = minX - pad
+        var top = minY - pad
+        var right = maxX + pad
+        var bottom = maxY + pad
+        if (right - left < minSize) {
+            val grow = (minSize - (right - left)) / 2
+            left -= grow
+            right += grow
+        }
+        if (bottom - top < minSize) {
+            val grow = (minSize - (bottom - top)) / 2
+            top -= grow
+            bottom += grow
+        }
+
+        // Even coordinates keep the crop aligned for the detector's 2x decimation.
+        x = (left.toInt().coerceIn(0, width - 1)) and 1.inv()
+        y = (top.toInt().coerceIn(0, height - 1)) and 1.inv()
+        roiWidth = Math.min(width, Math.ceil(right).toInt()) - x
+        roiHeight = Math.min(height, Math.ceil(bottom).toInt()) - y
+
+        decimation = when {
+            range.isNaN() -> searchDecimation
+            range < nearRange -> nearDecimation
+            range < farRange -> midDecimation
+            else -> farDecimation
+        }
+    }
+
+    /**
+     * Records the result of the frame searched with the last [plan]. Bounds are in full-frame
+     * pixels and [nearestRange] is in inches; both are ignored when [count] is 0.
+     */
+    fun observe(count: Int, minX: Double, minY: Double, maxX: Double, maxY: Double, nearestRange: Double) {
+        if (count == 0) {
+            missed++
+            return
+        }
+        hasBounds = true
+        missed = 0
+        this.minX = minX
+        this.minY = minY
+        this.maxX = maxX
+        this.maxY = maxY
+        range = nearestRange
+    }
+
+    fun reset() {
+        hasBounds = false
+        missed = 0
+        range = Double.NaN
+    }
+}
@@ -0,0 +1,36 @@
+package org.firstinspires.ftc.teamcode.vision
+
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Lock-free single-producer/single-consumer handoff of the latest value. The writer fills
+ * [back] and calls [publish]; the reader calls [latest] and may use the returned buffer until its
+ * next call. Neither side ever blocks or allocates.
+ */
+class TripleBuffer<T>(first: T, second: T, third: T) {
+    private val buffers = arrayOf<Any?>(first, second, third)
+    private val middle = AtomicInteger(1)
+    private var backIndex = 0
+    private var frontIndex = 2
+
+    @Suppress("UNCHECKED_CAST")
+    val back: T
+        get() = buffers[backIndex] as T
+
+    fun publish() {
+        backIndex = middle.getAndSet(backIndex or FRESH) and INDEX_MASK
+    }
+
+    @Suppress("UNCHECKED_CAST")
+    fun latest(): T {
+        if (middle.get() and FRESH != 0) {
+            frontIndex = middle.getAndSet(frontIndex) and INDEX_MASK
+        }
+        return buffers[frontIndex] as T
+    }
+
+    companion object {
+        private const val INDEX_MASK = 0b011
+        private const val FRESH = 0b100
+    }
+}
@@ -0,0 +1,12 @@
+package org.firstinspires.ftc.teamcode.vision
+
+/** Something that hands the control loop decoded vision results, real or simulated. */
+interface VisionFeed {
+    /** Most recent snapshot; valid until the next call. */
+    fun latest(): VisionSnapshot
+
+    /** Heading for MegaTag2, in radians in the FTC field frame. */
+    fun setRobotHeading(radians: Double)
+
+    fun stop()
+}
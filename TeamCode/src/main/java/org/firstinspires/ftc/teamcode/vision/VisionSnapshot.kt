@@ -0,0 +1,64 @@
+package org.firstinspires.ftc.teamcode.vision
+
+/**
+ * One decoded Limelight result. Instances are preallocated and reused by [LimelightPoller], so a
+ * reference is only stable until the next [LimelightPoller.latest] call. Distances are in inches
+ * and angles in radians; botpose is in the Limelight's field frame.
+ */
+class VisionSnapshot {
+    var sequence = 0L
+        internal set
+    var valid = false
+        internal set
+
+    /** System.nanoTime() at which the frame was captured, with all reported latencies removed. */
+    var captureNanos = 0L
+        internal set
+    var latencyMs = 0.0
+        internal set
+    var pipeline = 0
+        internal set
+
+    var tx = 0.0
+        internal set
+    var ty = 0.0
+        internal set
+    var ta = 0.0
+        internal set
+
+    var hasBotpose = false
+        internal set
+    var botposeX = 0.0
+        internal set
+    var botposeY = 0.0
+        internal set
+    var botposeHeading = 0.0
+        internal set
+
+    var hasBotposeMt2 = false
+        internal set
+    var botposeMt2X = 0.0
+        internal set
+    var botposeMt2Y = 0.0
+        internal set
+    var botposeMt2Heading = 0.0
+        internal set
+
+    var fiducialCount = 0
+        internal set
+    val fiducialIds = IntArray(MAX_FIDUCIALS)
+    val fiducialTx = DoubleArray(MAX_FIDUCIALS)
+    val fiducialTy = DoubleArray(MAX_FIDUCIALS)
+    val fiducialDistance = DoubleArray(MAX_FIDUCIALS)
+
+    fun indexOfFiducial(id: Int): Int {
+        for (i in 0 until fiducialCount) {
+            if (fiducialIds[i] == id) return i
+        }
+        return -1
+    }
+
+    companion object {
+        const val MAX_FIDUCIALS = 8
+    }
+}
@@ -0,0 +1,221 @@
+package org.firstinspires.ftc.teamcode.vision
+
+import android.graphics.Canvas
+import android.util.Size
+import com.qualcomm.robotcore.hardware.HardwareMap
+import org.firstinspires.ftc.robotcore.external.hardware.camera.WebcamName
+import org.firstinspires.ftc.robotcore.internal.camera.calibration.CameraCalibration
+import org.firstinspires.ftc.teamcode.constants.EPipeline
+import org.firstinspires.ftc.teamcode.constants.WebcamConstants
+import org.firstinspires.ftc.vision.VisionPortal
+import org.firstinspires.ftc.vision.VisionProcessor
+import org.opencv.core.Mat
+import org.opencv.core.Rect
+import org.opencv.imgproc.Imgproc
+import org.openftc.apriltag.AprilTagDetectorJNI
+
+/**
+ * AprilTag detection on a VisionPortal webcam, as a [VisionFeed]. Instead of the SDK's
+ * AprilTagProcessor, which searches every frame in full, this runs the detector on the region
+ * and at the decimation a [TagSearch] picks from the previous frame. A cropped frame is detected
+ * with the principal point shifted by the crop's origin, so tag poses come out the same as they
+ * would from the full frame.
+ *
+ * Results carry each tag's id, bearing and ground range like the Limelight's; there's no
+ * botpose. Lens intrinsics come from res/xml/teamwebcamcalibrations.xml for the configured
+ * resolution. The same portal also carries the [ArtifactProcessor]; [setPipeline] picks which
+ * of the two runs.
+ */
+class WebcamTagFeed(hardwareMap: HardwareMap) : VisionFeed {
+    private val buffer = TripleBuffer(VisionSnapshot(), VisionSnapshot(), VisionSnapshot())
+    private val processor = Processor()
+    val artifacts = ArtifactProcessor()
+    private val portal: VisionPortal = VisionPortal.Builder()
+        .setCamera(hardwareMap.get(WebcamName::class.java, WebcamConstants.cameraName))
+        .setCameraResolution(Size(WebcamConstants.width, WebcamConstants.height))
+        .enableLiveView(WebcamConstants.liveView)
+        .addProcessors(processor, artifacts)
+        .build()
+        .also { it.setProcessorEnabled(artifacts, false) }
+
+    @Volatile
+    private var closed = false
+
+    /** Frames searched so far, and how many of those had to search the whole frame. */
+    @Volatile
+    var frames = 0L
+        private set
+    @Volatile
+    var fullFrames = 0L
+        private set
+
+    /** Detection time of the last frame, in milliseconds. */
+    @Volatile
+    var processMs = 0.0
+        private set
+
+    /** Safe to call from one thread only. */
+    override fun latest(): VisionSnapshot = buffer.latest()
+
+    // Tags give the webcam path its pose on their own; it has no use for the robot heading.
+    override fun setRobotHeading(radians: Double) {}
+
+    /** Runs only the processor for [pipeline], so the two never share a frame's CPU time. */
+    fun setPipeline(pipeline: EPipeline) {
+        portal.setProcessorEnabled(processor, pipeline == EPipeline.APRILTAG)
+        portal.setProcessorEnabled(artifacts, pipeline == EPipeline.ARTIFACT)
+    }
+
+    override fun stop() {
+        if (closed) return
+        closed = true
+        portal.close()
+        processor.release()
+        artifacts.release()
+    }
+
+    private inner class Processor : VisionProcessor {
+        private val gray = Mat()
+        private val crop = Mat()
+        private val rect = Rect()
+        private lateinit var search: TagSearch
+        private var detector = 0L
+        private var decimation = Float.NaN
+        private var sequence = 0L
+
+        private var fx = 0.0
+        private var fy = 0.0
+        private var cx = 0.0
+        private var cy = 0.0
+
+        override fun init(width: Int, height: Int, calibration: CameraCalibration?) {
+            search = TagSearch(width, height).apply {
+                nearRange = WebcamConstants.nearRange
+                farRange = WebcamConstants.farRange
+                nearDecimation = WebcamConstants.nearDecimation.toFloat()
+                midDecimation = WebcamConstants.midDecimation.toFloat()
+                farDecimation = WebcamConstants.farDecimation.toFloat()
+                searchDecimation = WebcamConstants.searchDecimation.toFloat()
+                margin = WebcamConstants.roiMargin
+                minSize = WebcamConstants.roiMinSize
+                lostFrames = WebcamConstants.lostFrames
+            }
+
+            if (calibration != null && calibration.focalLengthX > 0) {
+                fx = calibration.focalLengthX.toDouble()
+                fy = calibration.focalLengthY.toDouble()
+                cx = calibration.principalPointX.toDouble()
+                cy = calibration.principalPointY.toDouble()
+            } else {
+                // Uncalibrated: a typical webcam's field of view, centered. Ranges will be off.
+                fx = width.toDouble()
+                fy = width.toDouble()
+                cx = width / 2.0
+                cy = height / 2.0
+            }
+
+            decimation = WebcamConstants.searchDecimation.toFloat()
+            detector = AprilTagDetectorJNI.createApriltagDetector(
+                AprilTagDetectorJNI.TagFamily.TAG_36h11.string, decimation, WebcamConstants.detectorThreads
+            )
+        }
+
+        override fun processFrame(frame: Mat, captureTimeNanos: Long): Any? {
+            if (closed || detector == 0L) return null
+            val start = System.nanoTime()
+
+            Imgproc.cvtColor(frame, gray, Imgproc.COLOR_RGBA2GRAY)
+            search.plan()
+            if (search.decimation != decimation) {
+                decimation = search.decimation
+                AprilTagDetectorJNI.setApriltagDetectorDecimation(detector, decimation)
+            }
+
+            val image = if (search.fullFrame) {
+                gray
+            } else {
+                rect.x = search.x
+                rect.y = search.y
+                rect.width = search.roiWidth
+                rect.height = search.roiHeight
+                // The detector wants contiguous pixels, so the view is copied into a reused Mat.
+                val view = gray.submat(rect)
+                view.copyTo(crop)
+                view.release()
+                crop
+            }
+
+            val detections = AprilTagDetectorJNI.runAprilTagDetectorSimple(
+                detector, image, WebcamConstants.tagSizeInches, fx, fy, cx - search.x, cy - search.y
+            )
+
+            val snapshot = buffer.back
+            var count = 0
+            var nearest = Double.POSITIVE_INFINITY
+            var minX = Double.POSITIVE_INFINITY
+            var minY = Double.POSITIVE_INFINITY
+            var maxX = Double.NEGATIVE_INFINITY
+            var maxY = Double.NEGATIVE_INFINITY
+            for (i in 0 until detections.size) {
+                if (count == VisionSnapshot.MAX_FIDUCIALS) break
+                val detection = detections[i]
+                val pose = detection.pose
+
+                // Camera frame: x right, y down, z out of the lens.
+                val range = Math.hypot(pose.x, pose.z)
+                snapshot.fiducialIds[count] = detection.id
+                snapshot.fiducialTx[count] = Math.toDegrees(Math.atan2(pose.x, pose.z))
+                snapshot.fiducialTy[count] = Math.toDegrees(Math.atan2(-pose.y, pose.z))
+                snapshot.fiducialDistance[count] = range
+                if (range < nearest) nearest = range
+
+                for (corner in detection.corners) {
+                    minX = Math.min(minX, corner.x + search.x)
+                    minY = Math.min(minY, corner.y + search.y)
+                    maxX = Math.max(maxX, corner.x + search.x)
+                    maxY = Math.max(maxY, corner.y + search.y)
+                }
+                count++
+            }
+
+            snapshot.sequence = ++sequence
+            snapshot.valid = count > 0
+            snapshot.captureNanos = captureTimeNanos
+            snapshot.latencyMs = (System.nanoTime() - captureTimeNanos) / 1e6
+            snapshot.pipeline = EPipeline.APRILTAG.ordinal
+            snapshot.fiducialCount = count
+            snapshot.hasBotpose = false
+            snapshot.hasBotposeMt2 = false
+            if (count > 0) {
+                snapshot.tx = snapshot.fiducialTx[0]
+                snapshot.ty = snapshot.fiducialTy[0]
+                snapshot.ta = 100 * (maxX - minX) * (maxY - minY) / (gray.cols() * gray.rows())
+            }
+            buffer.publish()
+
+            search.observe(count, minX, minY, maxX, maxY, nearest)
+            frames++
+            if (search.fullFrame) fullFrames++
+            processMs = (System.nanoTime() - start) / 1e6
+            return null
+        }
+
+        override fun onDrawFrame(
+            canvas: Canvas,
+            onscreenWidth: Int,
+            onscreenHeight: Int,
+            scaleBmpPxToCanvasPx: Float,
+            scaleCanvasDensity: Float,
+            userContext: Any?
+        ) {}
+
+        fun release() {
+            if (detector != 0L) {
+                AprilTagDetectorJNI.releaseApriltagDetector(detector)
+                detector = 0L
+            }
+            gray.release()
+            crop.release()
+        }
+    }
+}
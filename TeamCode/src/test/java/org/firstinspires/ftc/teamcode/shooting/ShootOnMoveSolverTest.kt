@@ -0,0 +1,112 @@
+package org.firstinspires.ftc.teamcode.shooting
+
+import org.junit.Assert.assertEquals
+import org.junit.Assert.assertFalse
+import org.junit.Assert.assertTrue
+import org.junit.Before
+import org.junit.Test
+
+class ShootOnMoveSolverTest {
+    private lateinit var solver: ShootOnMoveSolver
+
+    @Before
+    fun setUp() {
+        solver = ShootOnMoveSolver(
+            ShotTable.of(doubleArrayOf(24.0, 48.0, 96.0, 144.0), doubleArrayOf(1200.0, 1500.0, 1900.0, 2300.0)),
+            ShotTable.of(doubleArrayOf(24.0, 48.0, 96.0, 144.0), doubleArrayOf(0.35, 0.45, 0.65, 0.85))
+        )
+        solver.setGoal(12.0, 132.0)
+    }
+
+    @Test
+    fun stationaryRobotAimsAtTheRealGoal() {
+        assertTrue(solver.solve(72.0, 72.0, 0.0, 0.0, 0.0, 0.0))
+
+        assertEquals(12.0, solver.virtualGoalX, 1e-9)
+        assertEquals(132.0, solver.virtualGoalY, 1e-9)
+        assertEquals(Math.hypot(60.0, 60.0), solver.distance, 1e-9)
+        assertEquals(Math.atan2(60.0, -60.0), solver.heading, 1e-9)
+        assertEquals(solver.shotTable.velocityAt(solver.distance), solver.velocity, 1e-9)
+    }
+
+    @Test
+    fun movingRobotOffsetsTheGoalByVelocityTimesFlightTime() {
+        val vx = 30.0
+        val vy = -20.0
+        assertTrue(solver.solve(72.0, 72.0, 0.0, vx, vy, 0.0))
+
+        // The goal is shifted by the last iterate's time, which is within the tolerance of the final one.
+        assertEquals(12.0 - vx * solver.flightTime, solver.virtualGoalX, 0.01)
+        assertEquals(132.0 - vy * solver.flightTime, solver.virtualGoalY, 0.01)
+        // Self-consistent: the flight time is the table's time for the distance it implies.
+        assertEquals(solver.flightTimeTable.velocityAt(solver.distance), solver.flightTime, 1e-9)
+    }
+
+    @Test
+    fun convergesWithinTheIterationBound() {
+        solver.maxIterations = 10
+        for (speed in doubleArrayOf(0.0, 10.0, 30.0, 60.0)) {
+            assertTrue("speed $speed", solver.solve(72.0, 72.0, 1.0, speed, speed / 2, 0.5))
+            assertTrue("speed $speed took ${solver.iterations}", solver.iterations in 1..solver.maxIterations)
+        }
+
+        solver.maxIterations = 1
+        solver.toleranceSeconds = 0.0
+        assertFalse(solver.solve(72.0, 72.0, 0.0, 40.0, 0.0, 0.0))
+        assertEquals(1, solver.iterations)
+    }
+
+    @Test
+    fun headingIsWrapped() {
+        // Goal straight up the field; the launcher faces backwards, so the robot points down it.
+        solver.setGoal(72.0, 132.0)
+        solver.launcherHeadingOffset = Math.PI
+        solver.solve(72.0, 72.0, 0.0, 0.0, 0.0, 0.0)
+        assertEquals(-Math.PI / 2, solver.heading, 1e-9)
+
+        // Just past the -x axis either way stays in (-pi, pi].
+        solver.launcherHeadingOffset = 0.0
+        solver.setGoal(12.0, 71.0)
+        solver.solve(72.0, 72.0, 0.0, 0.0, 0.0, 0.0)
+        assertTrue(solver.heading > -Math.PI && solver.heading <= Math.PI)
+        assertEquals(-Math.PI + Math.atan2(1.0, 60.0), solver.heading, 1e-9)
+
+        solver.launcherHeadingOffset = -Math.PI / 2
+        solver.setGoal(12.0, 73.0)
+        solver.solve(72.0, 72.0, 0.0, 0.0, 0.0, 0.0)
+        assertTrue(solver.heading > -Math.PI && solver.heading <= Math.PI)
+    }
+
+    @Test
+    fun emptyTablesGiveNaNWithoutThrowing() {
+        val empty = ShootOnMoveSolver(ShotTable(), ShotTable())
+        empty.setGoal(12.0, 132.0)
+
+        assertFalse(empty.solve(72.0, 72.0, 0.0, 20.0, 0.0, 0.0))
+        assertTrue(empty.velocity.isNaN())
+        assertEquals(0.0, empty.flightTime, 0.0)
+        assertEquals(12.0, empty.virtualGoalX, 1e-9)
+        assertEquals(132.0, empty.virtualGoalY, 1e-9)
+        assertTrue(empty.iterations <= empty.maxIterations)
+    }
+
+    @Test
+    fun outOfRangeDistancesClampToTheTableEnds() {
+        solver.setGoal(400.0, 400.0)
+        assertTrue(solver.solve(0.0, 0.0, 0.0, 0.0, 0.0, 0.0))
+        assertEquals(2300.0, solver.velocity, 1e-9)
+        assertEquals(0.85, solver.flightTime, 1e-9)
+
+        solver.setGoal(1.0, 1.0)
+        assertTrue(solver.solve(0.0, 0.0, 0.0, 0.0, 0.0, 0.0))
+        assertEquals(1200.0, solver.velocity, 1e-9)
+    }
+
+    @Test
+    fun nanPoseIsReportedAsNotConverged() {
+        assertFalse(solver.solve(Double.NaN, 72.0, 0.0, 0.0, 0.0, 0.0))
+        assertTrue(solver.velocity.isNaN())
+        assertTrue(solver.heading.isNaN())
+        assertTrue(solver.iterations <= solver.maxIterations)
+    }
+}
@@ -25,3 +25,5 @@ dependencyResolutionManagement {
 rootProject.name = "apex-2026"
 include(":TeamCode")
 include(":FtcRobotController")
+include(":Benchmarks")
+include(":Replay")